@@ -37,11 +37,13 @@ public class AList<T> {
    * number of doublings of the current capacity needed to exceed newSize. Does
    * nothing if newSize <= a.length.  Grow the array by allocating a new array
    * and copying the old array's contents into the new one. This does *not*
-   * change the AList's size. */
+   * change the AList's size. Records a ResizeEvent for Flight Recorder. */
   protected void growIfNeeded(int newSize) {
     int currentCap = getCap();
 
     if (newSize > currentCap){
+      ResizeEvent event = new ResizeEvent();
+      event.begin();
       int newCap = currentCap;
       //Increase newCap to smallest doubling of current capacity that exceeds newSize
       while (newCap < newSize){
@@ -54,6 +56,14 @@ public class AList<T> {
         b[i] = a[i];
       }
       a = b;
+      event.end();
+      if (event.shouldCommit()) {
+        event.collection = AList.class;
+        event.oldCapacity = currentCap;
+        event.newCapacity = newCap;
+        event.entriesMoved = currentCap;
+        event.commit();
+      }
     }
   }
 
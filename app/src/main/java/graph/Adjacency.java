@@ -0,0 +1,174 @@
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/** The edges from (or to) one node: a map from each adjacent node to the
+ * weight of its edge, stored as growable parallel arrays of nodes and
+ * primitive weights in order of insertion. This takes about 12 bytes per
+ * edge, where a HashMap<Node,Double> takes over 50.
+ *
+ * A node is looked up by scanning the arrays while there are at most
+ * INDEX_THRESHOLD edges; past that, an open-addressing index from node hash
+ * to position is built and kept up to date. Edges are only ever added or
+ * reweighted, never removed. As a Map this is read-only; Node.addNeighbor
+ * and Graph.addEdge change it. Algorithms can walk the edges with size,
+ * node and weight, which neither box nor allocate. */
+final class Adjacency extends AbstractMap<Node,Double> {
+
+    /** Degrees above this are looked up through the index. */
+    static final int INDEX_THRESHOLD = 8;
+
+    private static final Node[] NO_NODES = new Node[0];
+    private static final double[] NO_WEIGHTS = new double[0];
+
+    private Node[] nodes = NO_NODES; // nodes[i] is the i-th adjacent node
+    private double[] weights = NO_WEIGHTS; // weights[i] is its edge weight
+    private int size;
+    private int[] index; // 1 + the position in each slot, or 0; or null
+    private int mask; // index.length - 1
+
+    /** Return the number of edges. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Return the node at the end of edge i, 0 <= i < size(). */
+    Node node(int i) {
+        return nodes[i];
+    }
+
+    /** Return the weight of edge i, 0 <= i < size(). */
+    double weight(int i) {
+        return weights[i];
+    }
+
+    /** Set the weight of the edge to n to w, adding the edge if there is
+     * none. Return the previous weight, or null if the edge is new. */
+    Double set(Node n, double w) {
+        int i = positionOf(n);
+        if (i >= 0) {
+            double old = weights[i];
+            weights[i] = w;
+            return old;
+        }
+        if (size == nodes.length) {
+            int capacity = Math.max(4, size * 2);
+            nodes = Arrays.copyOf(nodes, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        nodes[size] = n;
+        weights[size] = w;
+        size++;
+        if (index != null) {
+            insert(size - 1);
+            if (size * 2 > index.length) {
+                rebuildIndex();
+            }
+        } else if (size > INDEX_THRESHOLD) {
+            rebuildIndex();
+        }
+        return null;
+    }
+
+    /** Return the position of the edge to n, or -1 if there is none. */
+    int positionOf(Node n) {
+        if (index == null) {
+            // Node.equals checks identity, then hash, before the ids
+            for (int i = 0; i < size; i++) {
+                if (nodes[i].equals(n)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        for (int slot = slotOf(n); index[slot] != 0;
+                slot = (slot + 1) & mask) {
+            if (nodes[index[slot] - 1].equals(n)) {
+                return index[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Node && positionOf((Node) key) >= 0;
+    }
+
+    @Override
+    public Double get(Object key) {
+        int i = key instanceof Node ? positionOf((Node) key) : -1;
+        return i >= 0 ? weights[i] : null;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super Node,? super Double> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(nodes[i], weights[i]);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<Node,Double>> entrySet() {
+        return new AbstractSet<Map.Entry<Node,Double>>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Map.Entry<Node,Double>> iterator() {
+                return new Iterator<Map.Entry<Node,Double>>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Map.Entry<Node,Double> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int i = next++;
+                        return new SimpleImmutableEntry<>(nodes[i],
+                                weights[i]);
+                    }
+                };
+            }
+        };
+    }
+
+    /* Return the index slot where the search for n begins. */
+    private int slotOf(Node n) {
+        return OpenHashTable.spread(n.hashCode()) & mask;
+    }
+
+    /* Add edge i to the index. */
+    private void insert(int i) {
+        int slot = slotOf(nodes[i]);
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = i + 1;
+    }
+
+    /* Build an index with room for twice the current edges, rounded up to
+     * a power of two, and add every edge to it. */
+    private void rebuildIndex() {
+        index = new int[Integer.highestOneBit(size * 4 - 1)];
+        mask = index.length - 1;
+        for (int i = 0; i < size; i++) {
+            insert(i);
+        }
+    }
+}
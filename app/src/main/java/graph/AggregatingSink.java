@@ -0,0 +1,116 @@
+package graph;
+
+/** An EdgeSink that collapses the edges it receives into unique routes,
+ * combining the weights of repeated routes with a DuplicatePolicy. Only
+ * one entry per route is kept, in a RouteTable, so memory depends on the
+ * number of routes rather than the number of rows. The routes can be read
+ * back in order of first appearance, or turned into a Graph or
+ * CompactGraph.
+ * Sample usage:
+ *   AggregatingSink sink = new AggregatingSink(DuplicatePolicy.MEAN);
+ *   parser.parse(sink);
+ *   Graph g = sink.toGraph();
+ *   */
+public class AggregatingSink implements EdgeSink {
+
+    // the airport codes seen so far, and the id of each
+    private final SymbolTable codes = new SymbolTable();
+    private final RouteTable routes;
+
+    /** Constructor: a sink that keeps the last weight of each route. */
+    public AggregatingSink() {
+        this(DuplicatePolicy.LAST);
+    }
+
+    /** Constructor: a sink that combines repeated routes with policy. */
+    public AggregatingSink(DuplicatePolicy policy) {
+        routes = new RouteTable(policy);
+    }
+
+    @Override
+    public void accept(String[] origs, String[] dests, double[] weights,
+            int count) {
+        for (int i = 0; i < count; i++) {
+            routes.add(codes.intern(origs[i]), codes.intern(dests[i]),
+                    weights[i]);
+        }
+    }
+
+    /** Add count appearances of the route between the airports with ids
+     * orig and dest (see idOf), already combined into weight w.
+     * Precondition: count >= 1 */
+    void add(int orig, int dest, double w, int count) {
+        routes.add(orig, dest, w, count);
+    }
+
+    /** Return the number of unique routes. */
+    public int size() {
+        return routes.size();
+    }
+
+    /** Return the origin of route i, in order of first appearance. */
+    public String origin(int i) {
+        return codes.code(routes.orig(i));
+    }
+
+    /** Return the destination of route i. */
+    public String dest(int i) {
+        return codes.code(routes.dest(i));
+    }
+
+    /** Return the combined weight of route i. */
+    public double weight(int i) {
+        return routes.weight(i);
+    }
+
+    /** Return the number of times route i appeared. */
+    public int count(int i) {
+        return routes.count(i);
+    }
+
+    /** Return a new Graph of the routes. Nodes are created in order of
+     * first appearance, origin before destination. */
+    public Graph toGraph() {
+        // creating the nodes in id order makes each node's index its id
+        Graph graph = new Graph();
+        for (int id = 0; id < codes.size(); id++) {
+            graph.getNode(codes.code(id));
+        }
+        for (int i = 0; i < routes.size(); i++) {
+            graph.addEdge(routes.orig(i), routes.dest(i), routes.weight(i));
+        }
+        return graph;
+    }
+
+    /** Return a new CompactGraph of the routes. */
+    public CompactGraph toCompactGraph() {
+        int m = routes.size();
+        int[] src = new int[m];
+        int[] dst = new int[m];
+        double[] weights = new double[m];
+        for (int i = 0; i < m; i++) {
+            src[i] = routes.orig(i);
+            dst[i] = routes.dest(i);
+            weights[i] = routes.weight(i);
+        }
+        return CompactGraph.fromNumberedEdges(codes.toArray(), src, dst,
+                weights, m);
+    }
+
+    /** Pass every route with its combined weight on to sink, in order of
+     * first appearance. */
+    void sendTo(EdgeSink sink) {
+        EdgeBuffer out = new EdgeBuffer(sink);
+        for (int i = 0; i < routes.size(); i++) {
+            out.add(codes.code(routes.orig(i)), codes.code(routes.dest(i)),
+                    routes.weight(i));
+        }
+        out.flush();
+    }
+
+    /** Return the id of the airport with the given code, giving it the next
+     * id if it has not been seen before. */
+    int idOf(String code) {
+        return codes.intern(code);
+    }
+}
@@ -0,0 +1,134 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/** Interns airport codes read as raw bytes to dense int ids 0, 1, 2, ... in
+ * order of first appearance. A code that has been seen before is found by
+ * hashing and comparing its bytes in place, so no String is created for it;
+ * a String is only built the first time a code appears. Three-letter
+ * upper-case codes skip the hash table altogether: they are packed into an
+ * int as by SymbolTable.pack and looked up directly in an array. Codes are
+ * compared byte for byte, so they should be ASCII, as airport codes are. */
+final class AirportCodes {
+
+    private int[] packed; // id + 1 of each packed code, or 0; lazy
+    private int[] slots; // id + 1 of the code in each slot, or 0 if empty
+    private int mask; // slots.length - 1
+    private int[] hashes; // hashes[id] is the hash of id's code
+    private byte[] bytes; // the bytes of every code, back to back
+    private int[] starts; // id's code is bytes[starts[id]..starts[id+1]-1]
+    private String[] strings; // strings[id] is id's code
+    private int size;
+
+    /** Constructor: an empty table. */
+    AirportCodes() {
+        slots = new int[1024];
+        mask = slots.length - 1;
+        hashes = new int[256];
+        bytes = new byte[1024];
+        starts = new int[257];
+        strings = new String[256];
+    }
+
+    /** Return the number of distinct codes interned so far. */
+    int size() {
+        return size;
+    }
+
+    /** Return the code with the given id. */
+    String code(int id) {
+        return strings[id];
+    }
+
+    /** Return the id of the code in buf[start..end-1], interning it if it
+     * is new. */
+    int intern(ByteBuffer buf, int start, int end) {
+        if (end - start == 3) {
+            int p = SymbolTable.pack(buf.get(start), buf.get(start + 1),
+                    buf.get(start + 2));
+            if (p >= 0) {
+                if (packed == null) {
+                    packed = new int[SymbolTable.PACKED_CODES];
+                }
+                if (packed[p] == 0) {
+                    packed[p] = intern(buf, start, end, 3) + 1;
+                }
+                return packed[p] - 1;
+            }
+        }
+        return intern(buf, start, end, end - start);
+    }
+
+    /* Return the id of the len-byte code at buf[start..end-1] from the
+     * hash table, adding it if it is new. */
+    private int intern(ByteBuffer buf, int start, int end, int len) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + buf.get(i);
+        }
+        int slot = OpenHashTable.spread(h) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == h && equals(id, buf, start, len)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return add(buf, start, len, h, slot);
+    }
+
+    /* Return true if id's code is the len bytes of buf at start. */
+    private boolean equals(int id, ByteBuffer buf, int start, int len) {
+        int s = starts[id];
+        if (starts[id + 1] - s != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (bytes[s + i] != buf.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* Add the len bytes of buf at start, with hash h, as a new code in the
+     * empty slot, and return its id. */
+    private int add(ByteBuffer buf, int start, int len, int h, int slot) {
+        int id = size++;
+        if (id == hashes.length) {
+            hashes = Arrays.copyOf(hashes, id * 2);
+            strings = Arrays.copyOf(strings, id * 2);
+            starts = Arrays.copyOf(starts, id * 2 + 1);
+        }
+        int s = starts[id];
+        if (s + len > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, s + len));
+        }
+        for (int i = 0; i < len; i++) {
+            bytes[s + i] = buf.get(start + i);
+        }
+        starts[id + 1] = s + len;
+        hashes[id] = h;
+        strings[id] = new String(bytes, s, len, StandardCharsets.US_ASCII);
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /* Double the number of slots and reinsert every id. */
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = OpenHashTable.spread(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/** Point-to-point shortest paths with A* search guided by landmark lower
+ * bounds (ALT). The frontier is ordered by distance from the origin plus
+ * Landmarks.lowerBound to the destination. The landmark bound is admissible
+ * (it never overestimates), so the search can stop as soon as the
+ * destination is settled, usually after settling far fewer nodes than
+ * Dijkstra's algorithm. It is not always consistent, though: lowerBound
+ * skips landmarks with an infinite distance to or from a node, so the bound
+ * at two neighbouring nodes may come from different sets of landmarks and
+ * drop by more than the edge between them. A settled node's distance may
+ * then still improve, so such a node is put back on the frontier.
+ *
+ * Per-node arrays are allocated once and reset lazily between queries: a
+ * node's entries are only valid if its stamp equals the current query's.
+ * Sample usage:
+ *   CompactGraph cg = new CompactGraph(g);
+ *   Landmarks lm = Landmarks.select(cg, 16, 0);
+ *   AltShortestPaths alt = new AltShortestPaths(cg, lm);
+ *   alt.compute(g.getNode("A"), g.getNode("B"));
+ *   LinkedList<Node> abPath = alt.shortestPath();
+ *   */
+public class AltShortestPaths {
+
+    private final CompactGraph graph;
+    private final Landmarks landmarks;
+    private final double[] dist; // distance from the origin
+    private final int[] prev; // previous node on the path, or -1
+    private final int[] stamp; // query number for which dist/prev are set
+    private final IntHeap h;
+    private int query;
+    private int destination = -1;
+    private int settled; // number of nodes settled by the last query
+
+    /** Constructor: prepare to answer queries on graph using landmark
+     * tables computed for it. */
+    public AltShortestPaths(CompactGraph graph, Landmarks landmarks) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        dist = new double[graph.size()];
+        prev = new int[graph.size()];
+        stamp = new int[graph.size()];
+        h = new IntHeap(graph.size());
+    }
+
+    /** Compute the shortest path from origin to destination.
+     * Precondition: both nodes are in the graph. */
+    public void compute(Node origin, Node destination) {
+        compute(graph.indexOf(origin), graph.indexOf(destination));
+    }
+
+    /** Compute the shortest path between the nodes with ids origin and
+     * target. */
+    public void compute(int origin, int target) {
+        nextQuery();
+        h.clear();
+        destination = target;
+        settled = 0;
+        label(origin, 0.0, -1);
+        h.add(origin, landmarks.lowerBound(origin, target));
+
+        while (h.size() > 0) {
+            int u = h.poll();
+            settled++;
+            if (u == target) {
+                return;
+            }
+            double uDist = dist[u];
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int w = graph.target(e);
+                double wDist = uDist + graph.weight(e);
+                if (stamp[w] != query) {
+                    label(w, wDist, u);
+                    h.add(w, wDist + landmarks.lowerBound(w, target));
+                } else if (wDist < dist[w]) {
+                    double bound = h.contains(w) ?
+                            h.priority(w) - dist[w] :
+                            landmarks.lowerBound(w, target);
+                    label(w, wDist, u);
+                    if (h.contains(w)) {
+                        h.changePriority(w, wDist + bound);
+                    } else {
+                        h.add(w, wDist + bound);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Return the length of the shortest path found by the last call to
+     * compute, or Double.POSITIVE_INFINITY if there is no path. */
+    public double shortestPathLength() {
+        return stamp[destination] == query && !h.contains(destination) ?
+                dist[destination] : Double.POSITIVE_INFINITY;
+    }
+
+    /** Return the nodes on the shortest path found by the last call to
+     * compute, including both ends, or null if there is no path. */
+    public LinkedList<Node> shortestPath() {
+        if (shortestPathLength() == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        LinkedList<Node> path = new LinkedList<>();
+        for (int u = destination; u != -1; u = prev[u]) {
+            path.addFirst(graph.getNode(u));
+        }
+        return path;
+    }
+
+    /** Return the number of nodes settled by the last call to compute. */
+    public int settledCount() {
+        return settled;
+    }
+
+    /* Set u's distance and previous node for the current query. */
+    private void label(int u, double d, int p) {
+        dist[u] = d;
+        prev[u] = p;
+        stamp[u] = query;
+    }
+
+    /* Start a new query, so every node's stamp is out of date. */
+    private void nextQuery() {
+        query++;
+        if (query == 0) {
+            // the counter wrapped around; old stamps could look current
+            Arrays.fill(stamp, 0);
+            query = 1;
+        }
+    }
+}
@@ -13,31 +13,53 @@ import java.io.FileNotFoundException;
 public class BasicParser extends GraphParser {
 
     Scanner sc; // scanner to read the text file
+    private File file; // the file being read
 
     /** Open the given file and prepare to parse it. */
     @Override
     public void open(File f) throws FileNotFoundException {
         //airports = new HashMap<String,Airport>();
         sc = new Scanner(f);
+        file = f;
     }
 
     /** Parse an opened file and return a Graph representing the data in
      * the file. Precondition: open() has been successfully called. */
     @Override
     public Graph parse() {
-        Graph graph = new Graph();
+        GraphSink sink = new GraphSink();
+        parse(sink);
+        return sink.getGraph();
+    }
 
+    /** Parse an opened file and pass each line's edge to sink, in batches,
+     * in file order, recording a ParseEvent for Flight Recorder.
+     * Precondition: open() has been successfully called. */
+    @Override
+    public void parse(EdgeSink sink) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        EdgeBuffer out = new EdgeBuffer(sink);
+        long rows = 0;
+        long chars = 0;
         while (sc.hasNextLine()) {
-            String[] data = sc.nextLine().split(" ");
+            String line = sc.nextLine();
+            String[] data = line.split(" ");
             String origCode = data[0];
             String destCode = data[1];
             double distance = Double.parseDouble(data[2]);
-
-            Node orig = graph.getNode(origCode);
-            Node dest = graph.getNode(destCode);
-            graph.addEdge(orig, dest, distance);
+            out.add(origCode, destCode, distance);
+            rows++;
+            chars += line.length() + 1;
+        }
+        out.flush();
+        event.end();
+        if (event.shouldCommit()) {
+            event.parser = "BasicParser";
+            event.file = file.getPath();
+            event.rows = rows;
+            event.bytes = chars;
+            event.commit();
         }
-
-        return graph;
     }
 }
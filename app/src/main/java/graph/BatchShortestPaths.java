@@ -0,0 +1,123 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/** Computes shortest path trees from many origins in parallel over one
+ * frozen Graph. Each origin is a separate task on a ForkJoinPool; every
+ * worker thread keeps its own ShortestPaths as a workspace, so the workers
+ * share nothing but the read-only graph. Trees are handed back as soon as
+ * each origin finishes.
+ * Sample usage:
+ *   BatchShortestPaths batch = new BatchShortestPaths(g, 8);
+ *   batch.computeAll(origins, tree -> print(tree));
+ *   */
+public class BatchShortestPaths {
+
+    private final Graph graph;
+    private final FrontierType frontierType;
+    private final int threads;
+
+    // each worker thread's ShortestPaths, created on first use
+    private final ThreadLocal<ShortestPaths> workspace;
+
+    /** Constructor: run on threads worker threads, using the frontier
+     * FrontierType.forGraph(graph) picks. Freezes graph. */
+    public BatchShortestPaths(Graph graph, int threads) {
+        this(graph, FrontierType.forGraph(graph), threads);
+    }
+
+    /** Constructor: run on threads worker threads with the given kind of
+     * frontier. Freezes graph, so that the workers can read it safely.
+     * Precondition: threads >= 1 */
+    public BatchShortestPaths(Graph graph, FrontierType frontierType,
+            int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be >= 1");
+        }
+        graph.freeze();
+        this.graph = graph;
+        this.frontierType = frontierType;
+        this.threads = threads;
+        workspace = ThreadLocal.withInitial(
+                () -> new ShortestPaths(frontierType));
+    }
+
+    /** Return the graph the paths are computed on. */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /** Return the kind of frontier the workers use. */
+    public FrontierType getFrontierType() {
+        return frontierType;
+    }
+
+    /** Return the number of worker threads. */
+    public int getThreads() {
+        return threads;
+    }
+
+    /** Compute the shortest path tree from each of origins in parallel and
+     * pass each tree to consumer as soon as it is finished, in the order
+     * they finish. consumer is only called on the calling thread, one tree
+     * at a time. Returns once every origin is done.
+     * Precondition: every origin is a node in the graph.
+     * @throws RuntimeException if a computation fails or the calling
+     * thread is interrupted; the remaining origins are cancelled. */
+    public void computeAll(Collection<Node> origins,
+            Consumer<ShortestPathTree> consumer) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            CompletionService<ShortestPathTree> done =
+                new ExecutorCompletionService<>(pool);
+            for (Node origin : origins) {
+                done.submit(() -> computeTree(origin));
+            }
+            for (int i = 0; i < origins.size(); i++) {
+                consumer.accept(done.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Return the shortest path trees from each of origins, computed in
+     * parallel, in the same order as origins.
+     * Precondition: every origin is a node in the graph. */
+    public List<ShortestPathTree> computeAll(List<Node> origins) {
+        HashMap<Node,ShortestPathTree> trees = new HashMap<>();
+        computeAll(origins, tree -> trees.put(tree.getOrigin(), tree));
+        List<ShortestPathTree> result = new ArrayList<>(origins.size());
+        for (Node origin : origins) {
+            result.add(trees.get(origin));
+        }
+        return result;
+    }
+
+    /* Compute the tree from origin with this thread's workspace. */
+    private ShortestPathTree computeTree(Node origin) {
+        ShortestPaths sp = workspace.get();
+        sp.compute(origin);
+        return sp.toTree(graph);
+    }
+}
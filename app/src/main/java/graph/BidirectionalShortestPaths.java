@@ -0,0 +1,159 @@
+package graph;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/** Point-to-point shortest paths using bidirectional Dijkstra. One search
+ * runs forward from the origin along outgoing edges while another runs
+ * backward from the destination along incoming edges (see Node.getIncoming),
+ * so the graph must have been built with Graph.addEdge. Each step advances
+ * whichever search has the smaller frontier.
+ *
+ * mu is the length of the best origin-to-destination path seen so far
+ * through an edge joining the two searches. The searches stop once the
+ * smallest frontier distances of the two sides add up to at least mu, since
+ * no path found later could be shorter.
+ * Sample usage:
+ *   BidirectionalShortestPaths bsp = new BidirectionalShortestPaths();
+ *   bsp.compute(g.getNode("A"), g.getNode("B"));
+ *   LinkedList<Node> abPath = bsp.shortestPath();
+ *   double abPathLength = bsp.shortestPathLength();
+ *   */
+public class BidirectionalShortestPaths {
+
+    private double mu; // length of the best path found so far
+    // the best path found is the forward path to left, the edge
+    // left -> right, and the backward path from right
+    private Node left;
+    private Node right;
+    private Search forward;
+    private Search backward;
+
+    /** Compute the shortest path from origin to destination.
+     * Precondition: origin and destination are nodes in the same Graph. */
+    public void compute(Node origin, Node destination) {
+        forward = new Search(origin, true);
+        backward = new Search(destination, false);
+        mu = Double.POSITIVE_INFINITY;
+        left = right = null;
+        if (origin.equals(destination)) {
+            mu = 0.0;
+            left = right = origin;
+            return;
+        }
+
+        while (forward.h.size() > 0 && backward.h.size() > 0) {
+            if (forward.topDistance() + backward.topDistance() >= mu) {
+                break;
+            }
+            if (forward.h.size() <= backward.h.size()) {
+                forward.step(backward);
+            } else {
+                backward.step(forward);
+            }
+        }
+    }
+
+    /** Return the length of the shortest path found by compute, or
+     * Double.POSITIVE_INFINITY if there is no path. */
+    public double shortestPathLength() {
+        return mu;
+    }
+
+    /** Return a LinkedList of the nodes along the shortest path found by
+     * compute, including the origin and destination, or null if there is no
+     * path. If origin and destination are the same node, it is included only
+     * once. */
+    public LinkedList<Node> shortestPath() {
+        if (left == null) {
+            return null;
+        }
+        LinkedList<Node> path = new LinkedList<>();
+        for (Node n = left; n != null; n = forward.labels.get(n).previous) {
+            path.addFirst(n);
+        }
+        if (right != left) {
+            for (Node n = right; n != null;
+                    n = backward.labels.get(n).previous) {
+                path.addLast(n);
+            }
+        }
+        return path;
+    }
+
+    /** Return the number of nodes settled by both searches in the last call
+     * to compute. */
+    public int settledCount() {
+        return forward.settled + backward.settled;
+    }
+
+    /** Distance label of a node in one of the two searches. */
+    static class Label {
+        double distance; // distance from the search's start node
+        Node previous; // previous node on the path from the start, or null
+        int index; // key of the node in the search's frontier
+
+        Label(double dist, Node prev, int idx) {
+            distance = dist;
+            previous = prev;
+            index = idx;
+        }
+    }
+
+    /** One direction of the bidirectional search. */
+    class Search {
+        final boolean isForward;
+        final HashMap<Node,Label> labels = new HashMap<>();
+        final AList<Node> discovered = new AList<>();
+        final IntHeap h = new IntHeap();
+        int settled;
+
+        Search(Node start, boolean isForward) {
+            this.isForward = isForward;
+            discovered.append(start);
+            labels.put(start, new Label(0.0, null, 0));
+            h.add(0, 0.0);
+        }
+
+        /* Return the smallest distance in the frontier. */
+        double topDistance() {
+            return h.priority(h.peek());
+        }
+
+        /* Settle the nearest frontier node u and relax its edges. Whenever an
+         * edge reaches a node labeled by the other search, update mu. */
+        void step(Search other) {
+            Node u = discovered.get(h.poll());
+            double uDist = labels.get(u).distance;
+            settled++;
+            Map<Node,Double> edges = isForward ?
+                    u.getNeighbors() : u.getIncoming();
+            for (Map.Entry<Node,Double> edge : edges.entrySet()) {
+                Node w = edge.getKey();
+                double wDist = uDist + edge.getValue();
+                Label wLabel = labels.get(w);
+                if (wLabel == null) {
+                    int wIdx = discovered.size();
+                    discovered.append(w);
+                    labels.put(w, new Label(wDist, u, wIdx));
+                    h.add(wIdx, wDist);
+                } else if (wDist < wLabel.distance) {
+                    wLabel.distance = wDist;
+                    wLabel.previous = u;
+                    if (h.contains(wLabel.index)) {
+                        h.changePriority(wLabel.index, wDist);
+                    }
+                }
+
+                Label otherLabel = other.labels.get(w);
+                if (otherLabel != null
+                        && wDist + otherLabel.distance < mu) {
+                    mu = wDist + otherLabel.distance;
+                    left = isForward ? u : w;
+                    right = isForward ? w : u;
+                }
+            }
+        }
+    }
+}
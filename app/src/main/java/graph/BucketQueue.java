@@ -0,0 +1,274 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** A monotone bucket queue (Dial's algorithm) for non-negative integer
+ * priorities. Keys with priority p are kept in a doubly-linked list in bucket
+ * p mod B, where B is a power of two larger than the spread between the
+ * smallest and largest priority in the queue; in Dijkstra's algorithm that
+ * spread is at most the largest edge weight. add and changePriority are O(1),
+ * and poll scans forward from the last polled priority to the next non-empty
+ * bucket. No comparisons between priorities are made.
+ *
+ * The queue is monotone: a priority may never be lower than the last polled
+ * priority. Dijkstra's algorithm with non-negative weights satisfies this.
+ * An empty queue forgets the last polled priority and may start again at
+ * any priority. */
+public final class BucketQueue implements Frontier {
+
+    /** The largest edge weight for which FrontierType.forGraph picks a
+     * BucketQueue. Its bucket array then has at most 2^17 entries. */
+    public static final int MAX_AUTO_WEIGHT = 1 << 16;
+
+    /** The most buckets a queue may have: priorities in the queue at once
+     * must span fewer than this many values. */
+    public static final int MAX_BUCKETS = 1 << 30;
+
+    private int[] head; // head[b] is the first key in bucket b, or -1
+    private int mask; // head.length - 1
+    private int[] next; // next key in the same bucket, or -1
+    private int[] prev; // previous key in the same bucket, or -1
+    private long[] prio; // prio[v] is v's priority while v is in the queue
+    private boolean[] in; // in[v] is true iff v is in the queue
+    private long floor; // the last polled priority, or 0 after a restart
+    private long cur; // no key in the queue has priority below cur
+    private long max; // no key in the queue has priority above max
+    // Invariant: floor <= cur <= max and max - cur <= mask, so each priority
+    // in cur..max has its own bucket
+    private int size;
+
+    /** Constructor: an empty queue with room for keys 0..capacity-1 and
+     * priorities spread over at most maxWeight + 1 consecutive values.
+     * Both grow as needed.
+     * @throws IllegalArgumentException if maxWeight >= MAX_BUCKETS */
+    public BucketQueue(int capacity, int maxWeight) {
+        if (maxWeight >= MAX_BUCKETS) {
+            throw new IllegalArgumentException(
+                    "maxWeight must be < " + MAX_BUCKETS);
+        }
+        capacity = Math.max(capacity, 1);
+        next = new int[capacity];
+        prev = new int[capacity];
+        prio = new long[capacity];
+        in = new boolean[capacity];
+        int buckets = 2;
+        while (buckets <= maxWeight) {
+            buckets *= 2;
+        }
+        head = new int[buckets];
+        Arrays.fill(head, -1);
+        mask = buckets - 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int v) {
+        return v < in.length && in[v];
+    }
+
+    /** Add v with priority p.
+     * @throws IllegalArgumentException if v is already in the queue, or p
+     * is not a non-negative integer, or p is lower than the last polled
+     * priority while the queue is non-empty, or the priorities in the queue
+     * would span MAX_BUCKETS or more values. */
+    @Override
+    public void add(int v, double p) {
+        if (v < 0 || contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        long lp = toPriority(p);
+        if (size == 0) {
+            // an empty queue restarts at lp, and any priority may follow
+            floor = 0;
+            cur = lp;
+            max = lp;
+        } else {
+            fit(lp);
+        }
+        if (v >= in.length) {
+            growKeys(v);
+        }
+        in[v] = true;
+        size++;
+        insert(v, lp);
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        long start = cur;
+        while (head[(int) (cur & mask)] == -1) {
+            cur++;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.bucketScans.add(cur - start);
+        }
+        floor = cur;
+        int v = head[(int) (cur & mask)];
+        unlink(v);
+        in[v] = false;
+        size--;
+        return v;
+    }
+
+    /** Change the priority of v to p.
+     * @throws IllegalArgumentException if v is not in the queue, or p is
+     * not a non-negative integer, or p is lower than the last polled
+     * priority, or the priorities in the queue would span MAX_BUCKETS or
+     * more values. */
+    @Override
+    public void changePriority(int v, double p) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        if (Metrics.ENABLED) {
+            Metrics.frontierChangePriorityCalls.increment();
+        }
+        long lp = toPriority(p);
+        fit(lp);
+        unlink(v);
+        insert(v, lp);
+    }
+
+    @Override
+    public void clear() {
+        for (int b = 0; b < head.length; b++) {
+            for (int v = head[b]; v != -1; v = next[v]) {
+                in[v] = false;
+            }
+            head[b] = -1;
+        }
+        size = 0;
+    }
+
+    /* Widen cur..max to include lp, growing the bucket array if the range
+     * no longer fits in it. Nothing is changed if an exception is thrown.
+     * @throws IllegalArgumentException if lp is below the last polled
+     * priority, or the range would span MAX_BUCKETS or more values. */
+    private void fit(long lp) {
+        if (lp < floor) {
+            throw new IllegalArgumentException("priority below last poll");
+        }
+        long lo = Math.min(cur, lp);
+        long hi = Math.max(max, lp);
+        if (hi - lo >= MAX_BUCKETS) {
+            throw new IllegalArgumentException("priorities " + lo + " and "
+                    + hi + " are too far apart for a BucketQueue");
+        }
+        cur = lo;
+        max = hi;
+        if (max - cur > mask) {
+            growBuckets();
+        }
+    }
+
+    /* Put v at the head of the bucket for priority lp, which is in
+     * cur..max. */
+    private void insert(int v, long lp) {
+        prio[v] = lp;
+        int b = (int) (lp & mask);
+        prev[v] = -1;
+        next[v] = head[b];
+        if (head[b] != -1) {
+            prev[head[b]] = v;
+        }
+        head[b] = v;
+    }
+
+    /* Remove v from its bucket's list. */
+    private void unlink(int v) {
+        if (prev[v] == -1) {
+            head[(int) (prio[v] & mask)] = next[v];
+        } else {
+            next[prev[v]] = next[v];
+        }
+        if (next[v] != -1) {
+            prev[next[v]] = prev[v];
+        }
+    }
+
+    /* Return p as a long.
+     * @throws IllegalArgumentException if p is not a non-negative integer */
+    private static long toPriority(double p) {
+        long lp = (long) p;
+        if (lp != p || lp < 0) {
+            throw new IllegalArgumentException(
+                    "priority is not a non-negative integer: " + p);
+        }
+        return lp;
+    }
+
+    /* Double the number of buckets until every priority in cur..max has its
+     * own bucket, and relink every key into the new buckets, recording a
+     * ResizeEvent for Flight Recorder.
+     * Precondition: max - cur < MAX_BUCKETS, so the doubling cannot
+     * overflow. */
+    private void growBuckets() {
+        ResizeEvent event = new ResizeEvent();
+        event.begin();
+        int[] oldHead = head;
+        int buckets = head.length;
+        while (max - cur >= buckets) {
+            buckets *= 2;
+        }
+        head = new int[buckets];
+        Arrays.fill(head, -1);
+        int oldMask = mask;
+        mask = buckets - 1;
+        for (int b = 0; b <= oldMask; b++) {
+            int v = oldHead[b];
+            while (v != -1) {
+                int nxt = next[v];
+                int nb = (int) (prio[v] & mask);
+                prev[v] = -1;
+                next[v] = head[nb];
+                if (head[nb] != -1) {
+                    prev[head[nb]] = v;
+                }
+                head[nb] = v;
+                v = nxt;
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.collection = BucketQueue.class;
+            event.array = "buckets";
+            event.oldCapacity = oldHead.length;
+            event.newCapacity = buckets;
+            event.entriesMoved = size;
+            event.commit();
+        }
+    }
+
+    /* Grow the per-key arrays so that key v fits, doubling as needed, and
+     * record a ResizeEvent for Flight Recorder. */
+    private void growKeys(int v) {
+        ResizeEvent event = new ResizeEvent();
+        event.begin();
+        int oldCap = in.length;
+        int newCap = in.length;
+        while (newCap <= v) {
+            newCap *= 2;
+        }
+        next = Arrays.copyOf(next, newCap);
+        prev = Arrays.copyOf(prev, newCap);
+        prio = Arrays.copyOf(prio, newCap);
+        in = Arrays.copyOf(in, newCap);
+        event.end();
+        if (event.shouldCommit()) {
+            event.collection = BucketQueue.class;
+            event.array = "keys";
+            event.oldCapacity = oldCap;
+            event.newCapacity = newCap;
+            event.entriesMoved = oldCap;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/** Point-to-point shortest path queries on a ContractionHierarchy. A forward
+ * search from the origin and a backward search from the destination each
+ * follow only edges to higher-ranked nodes. Every shortest path has a
+ * highest-ranked node that both searches reach, so the answer is the smallest
+ * sum of forward and backward distances over nodes labeled by both. Each
+ * search stops once its smallest frontier distance reaches that sum. The
+ * resulting path is unpacked by recursively replacing each shortcut u -> w
+ * bypassing v with the edges u -> v and v -> w.
+ * Sample usage:
+ *   ContractionHierarchy ch = ContractionHierarchy.build(g);
+ *   CHShortestPaths sp = new CHShortestPaths(ch);
+ *   sp.compute(g.getNode("A"), g.getNode("B"));
+ *   LinkedList<Node> abPath = sp.shortestPath();
+ *   double abPathLength = sp.shortestPathLength();
+ *   */
+public class CHShortestPaths {
+
+    private final ContractionHierarchy ch;
+    private final CompactGraph graph;
+
+    // per-direction labels, valid only where stamp equals query
+    private final double[] distF, distB;
+    private final int[] prevF, prevB; // edge index used to reach each node
+    private final int[] stampF, stampB;
+    private final IntHeap heapF, heapB;
+    private int query;
+
+    private double mu; // length of the best path found
+    private int meet = -1; // node where the best path's two halves meet
+    private int origin, destination;
+    private int settled;
+
+    /** Constructor: prepare to answer queries on ch. */
+    public CHShortestPaths(ContractionHierarchy ch) {
+        this.ch = ch;
+        graph = ch.getGraph();
+        int n = graph.size();
+        distF = new double[n];
+        distB = new double[n];
+        prevF = new int[n];
+        prevB = new int[n];
+        stampF = new int[n];
+        stampB = new int[n];
+        heapF = new IntHeap(n);
+        heapB = new IntHeap(n);
+    }
+
+    /** Compute the shortest path from origin to destination.
+     * Precondition: both nodes are in the graph. */
+    public void compute(Node origin, Node destination) {
+        compute(graph.indexOf(origin), graph.indexOf(destination));
+    }
+
+    /** Compute the shortest path between the nodes with ids s and t. */
+    public void compute(int s, int t) {
+        query++;
+        if (query == 0) {
+            Arrays.fill(stampF, 0);
+            Arrays.fill(stampB, 0);
+            query = 1;
+        }
+        origin = s;
+        destination = t;
+        mu = Double.POSITIVE_INFINITY;
+        meet = -1;
+        settled = 0;
+        heapF.clear();
+        heapB.clear();
+        label(distF, prevF, stampF, s, 0.0, -1);
+        label(distB, prevB, stampB, t, 0.0, -1);
+        heapF.add(s, 0.0);
+        heapB.add(t, 0.0);
+
+        boolean forward = true;
+        while (true) {
+            boolean fDone = heapF.size() == 0
+                    || heapF.priority(heapF.peek()) >= mu;
+            boolean bDone = heapB.size() == 0
+                    || heapB.priority(heapB.peek()) >= mu;
+            if (fDone && bDone) {
+                break;
+            }
+            // alternate between directions while both have work
+            if (fDone) {
+                forward = false;
+            } else if (bDone) {
+                forward = true;
+            }
+            if (forward) {
+                step(heapF, distF, prevF, stampF, distB, stampB,
+                        ch.fwdOffsets, ch.fwdTarget, ch.fwdWeight);
+            } else {
+                step(heapB, distB, prevB, stampB, distF, stampF,
+                        ch.bwdOffsets, ch.bwdTarget, ch.bwdWeight);
+            }
+            forward = !forward;
+        }
+    }
+
+    /* Settle the nearest node of one search, update mu if the other search
+     * has labeled it, and relax its upward edges. */
+    private void step(IntHeap h, double[] dist, int[] prev, int[] stamp,
+            double[] otherDist, int[] otherStamp, int[] offsets,
+            int[] target, double[] weight) {
+        int u = h.poll();
+        settled++;
+        double uDist = dist[u];
+        if (otherStamp[u] == query && uDist + otherDist[u] < mu) {
+            mu = uDist + otherDist[u];
+            meet = u;
+        }
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            int w = target[e];
+            double wDist = uDist + weight[e];
+            if (stamp[w] != query) {
+                label(dist, prev, stamp, w, wDist, e);
+                h.add(w, wDist);
+            } else if (wDist < dist[w]) {
+                label(dist, prev, stamp, w, wDist, e);
+                if (h.contains(w)) {
+                    h.changePriority(w, wDist);
+                } else {
+                    h.add(w, wDist);
+                }
+            }
+        }
+    }
+
+    /** Return the length of the shortest path found by the last call to
+     * compute, or Double.POSITIVE_INFINITY if there is no path. */
+    public double shortestPathLength() {
+        return mu;
+    }
+
+    /** Return the nodes on the shortest path found by the last call to
+     * compute, including both ends, with all shortcuts unpacked, or null if
+     * there is no path. If origin and destination are the same node, it is
+     * included only once. */
+    public LinkedList<Node> shortestPath() {
+        if (meet == -1) {
+            return null;
+        }
+        LinkedList<Node> path = new LinkedList<>();
+        path.add(graph.getNode(origin));
+
+        // forward half: collect the upward edges from origin to meet, then
+        // unpack them in order
+        LinkedList<Integer> edges = new LinkedList<>();
+        for (int u = meet; prevF[u] != -1; u = ownerOf(ch.fwdOffsets,
+                prevF[u])) {
+            edges.addFirst(prevF[u]);
+        }
+        for (int e : edges) {
+            int from = ownerOf(ch.fwdOffsets, e);
+            unpack(from, ch.fwdTarget[e], ch.fwdMiddle[e], path);
+        }
+
+        // backward half: each edge leads from u down to the lower-ranked
+        // node that stores it, toward destination
+        for (int u = meet; prevB[u] != -1; ) {
+            int e = prevB[u];
+            int next = ownerOf(ch.bwdOffsets, e);
+            unpack(u, next, ch.bwdMiddle[e], path);
+            u = next;
+        }
+        return path;
+    }
+
+    /** Return the number of nodes settled by the last call to compute. */
+    public int settledCount() {
+        return settled;
+    }
+
+    /* Append the original nodes after from on the edge from -> to, which
+     * bypasses middle if it is a shortcut (middle != -1). */
+    private void unpack(int from, int to, int middle, LinkedList<Node> path) {
+        if (middle == -1) {
+            path.add(graph.getNode(to));
+            return;
+        }
+        // middle has lower rank than both ends, so from -> middle is stored
+        // in middle's backward edges and middle -> to in its forward edges
+        int e1 = ch.findBackward(middle, from);
+        unpack(from, middle, ch.bwdMiddle[e1], path);
+        int e2 = ch.findForward(middle, to);
+        unpack(middle, to, ch.fwdMiddle[e2], path);
+    }
+
+    /* Return the node whose edge range in offsets contains edge e. */
+    private static int ownerOf(int[] offsets, int e) {
+        // binary search for the last u with offsets[u] <= e
+        int lo = 0;
+        int hi = offsets.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= e) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /* Set u's distance and incoming edge in one direction's labels. */
+    private void label(double[] dist, int[] prev, int[] stamp, int u,
+            double d, int e) {
+        dist[u] = d;
+        prev[u] = e;
+        stamp[u] = query;
+    }
+}
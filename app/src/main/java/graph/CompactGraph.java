@@ -0,0 +1,250 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/** An immutable compressed sparse row (CSR) representation of a directed
+ * graph. Nodes are given dense int ids 0..size()-1 in sorted order of their
+ * String identifiers, so an identifier can be looked up with a binary search
+ * instead of a hash map. The outgoing edges of node u are stored at the
+ * indices edgeStart(u) (inclusive) to edgeEnd(u) (exclusive) of the parallel
+ * targets and weights arrays. */
+public class CompactGraph {
+
+    private final String[] ids; // sorted node identifiers; ids[u] is u's id
+    private final int[] offsets; // edges of u are offsets[u]..offsets[u+1]-1
+    private final int[] targets; // destination node id of each edge
+    private final double[] weights; // weight of each edge
+    private final Node[] nodes; // Node objects for each id, created lazily
+
+    /** Constructor: build a compact copy of g. Later changes to g are not
+     * reflected in this graph. */
+    public CompactGraph(Graph g) {
+        Map<String,Node> gNodes = g.getNodes();
+        ids = gNodes.keySet().toArray(new String[0]);
+        Arrays.sort(ids);
+        nodes = new Node[ids.length];
+        offsets = new int[ids.length + 1];
+
+        int numEdges = 0;
+        for (int u = 0; u < ids.length; u++) {
+            nodes[u] = gNodes.get(ids[u]);
+            numEdges += nodes[u].getNeighbors().size();
+        }
+        targets = new int[numEdges];
+        weights = new double[numEdges];
+
+        int e = 0;
+        for (int u = 0; u < ids.length; u++) {
+            offsets[u] = e;
+            for (Map.Entry<Node,Double> edge :
+                    nodes[u].getNeighbors().entrySet()) {
+                targets[e] = indexOf(edge.getKey().getId());
+                weights[e] = edge.getValue();
+                e++;
+            }
+        }
+        offsets[ids.length] = e;
+    }
+
+    /** Constructor: wrap already-built CSR arrays. ids must be sorted and
+     * distinct, and offsets must have length ids.length + 1. */
+    CompactGraph(String[] ids, int[] offsets, int[] targets,
+            double[] weights) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.nodes = new Node[ids.length];
+    }
+
+    /** Build a compact graph from the first m edges origs[i] -> dests[i]
+     * with weight weights[i]. If the same edge appears more than once, the
+     * last occurrence wins, just as with Node.addNeighbor. */
+    public static CompactGraph fromEdges(String[] origs, String[] dests,
+            double[] weights, int m) {
+        // collect the distinct node ids in sorted order
+        String[] all = new String[2 * m];
+        System.arraycopy(origs, 0, all, 0, m);
+        System.arraycopy(dests, 0, all, m, m);
+        Arrays.sort(all);
+        int n = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (n == 0 || !all[i].equals(all[n - 1])) {
+                all[n++] = all[i];
+            }
+        }
+        String[] ids = Arrays.copyOf(all, n);
+
+        int[] src = new int[m];
+        int[] dst = new int[m];
+        for (int i = 0; i < m; i++) {
+            src[i] = Arrays.binarySearch(ids, origs[i]);
+            dst[i] = Arrays.binarySearch(ids, dests[i]);
+        }
+        return fromIndexedEdges(ids, src, dst, weights, m);
+    }
+
+    /** Build a compact graph from the first m edges src[i] -> dst[i] with
+     * weight w[i], where nodes are numbered by their position in the
+     * distinct ids codes, in any order. The nodes are renumbered in sorted
+     * order of their ids, overwriting src and dst. Duplicate edges are
+     * resolved last-write-wins. */
+    static CompactGraph fromNumberedEdges(String[] codes, int[] src,
+            int[] dst, double[] w, int m) {
+        String[] ids = codes.clone();
+        Arrays.sort(ids);
+        // rank[k] is the sorted position of codes[k]
+        int[] rank = new int[ids.length];
+        for (int k = 0; k < rank.length; k++) {
+            rank[k] = Arrays.binarySearch(ids, codes[k]);
+        }
+        for (int i = 0; i < m; i++) {
+            src[i] = rank[src[i]];
+            dst[i] = rank[dst[i]];
+        }
+        return fromIndexedEdges(ids, src, dst, w, m);
+    }
+
+    /** Build a compact graph over the sorted, distinct ids from the first m
+     * edges src[i] -> dst[i] with weight w[i], given as indices into ids.
+     * Duplicate edges are resolved last-write-wins. */
+    static CompactGraph fromIndexedEdges(String[] ids, int[] src, int[] dst,
+            double[] w, int m) {
+        int n = ids.length;
+
+        // stable counting sort of the edges by source
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[src[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        for (int i = 0; i < m; i++) {
+            int e = next[src[i]]++;
+            targets[e] = dst[i];
+            weights[e] = w[i];
+        }
+
+        // drop all but the last copy of each duplicate edge, compacting the
+        // arrays in place. seen[v] holds 1 + the kept position of the edge to
+        // v from the current source, or 0 if there is none yet.
+        int[] seen = new int[n];
+        int kept = 0;
+        for (int u = 0; u < n; u++) {
+            int start = kept;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (seen[v] > start) {
+                    weights[seen[v] - 1] = weights[e];
+                } else {
+                    targets[kept] = v;
+                    weights[kept] = weights[e];
+                    seen[v] = ++kept;
+                }
+            }
+            offsets[u] = start;
+        }
+        offsets[n] = kept;
+
+        if (kept < m) {
+            targets = Arrays.copyOf(targets, kept);
+            weights = Arrays.copyOf(weights, kept);
+        }
+        return new CompactGraph(ids, offsets, targets, weights);
+    }
+
+    /** Return the number of nodes in the graph. */
+    public int size() {
+        return ids.length;
+    }
+
+    /** Return the number of edges in the graph. */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /** Return the dense id of the node with identifier s, or -1 if there is
+     * no such node. Runtime: O(log size()) */
+    public int indexOf(String s) {
+        int u = Arrays.binarySearch(ids, s);
+        return u >= 0 ? u : -1;
+    }
+
+    /** Return the dense id of node n, or -1 if it is not in the graph. */
+    public int indexOf(Node n) {
+        return indexOf(n.getId());
+    }
+
+    /** Return the String identifier of node u. */
+    public String getId(int u) {
+        return ids[u];
+    }
+
+    /** Return a Node for node u. If this graph was built from a Graph, this
+     * is the same Node object as in that Graph. */
+    public Node getNode(int u) {
+        if (nodes[u] == null) {
+            nodes[u] = new Node(ids[u]);
+        }
+        return nodes[u];
+    }
+
+    /** Return the index of u's first outgoing edge. */
+    public int edgeStart(int u) {
+        return offsets[u];
+    }
+
+    /** Return one past the index of u's last outgoing edge. */
+    public int edgeEnd(int u) {
+        return offsets[u + 1];
+    }
+
+    /** Return the destination node of edge e. */
+    public int target(int e) {
+        return targets[e];
+    }
+
+    /** Return the weight of edge e. */
+    public double weight(int e) {
+        return weights[e];
+    }
+
+    /** Return a new CompactGraph with every edge reversed. Node ids are the
+     * same in both graphs. */
+    public CompactGraph reverse() {
+        int n = ids.length;
+        int[] rOffsets = new int[n + 1];
+        for (int e = 0; e < targets.length; e++) {
+            rOffsets[targets[e] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            rOffsets[u + 1] += rOffsets[u];
+        }
+        int[] next = Arrays.copyOf(rOffsets, n);
+        int[] rTargets = new int[targets.length];
+        double[] rWeights = new double[targets.length];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int r = next[targets[e]]++;
+                rTargets[r] = u;
+                rWeights[r] = weights[e];
+            }
+        }
+        return new CompactGraph(ids, rOffsets, rTargets, rWeights);
+    }
+
+    /** Print a report of the graph's statistics, including number of nodes,
+     * number of edges, and average degree. */
+    public void report() {
+        System.out.println("Graph has: ");
+        System.out.println(size() + " nodes.");
+        System.out.println(edgeCount() + " edges.");
+        System.out.println("Average degree " +
+                ((double) edgeCount()) / ((double) size()));
+    }
+}
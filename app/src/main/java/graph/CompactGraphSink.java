@@ -0,0 +1,48 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An EdgeSink that builds a CompactGraph. Node ids are interned as edges
+ * arrive and the edges are kept in primitive arrays, about 16 bytes per
+ * edge, until getGraph sorts them into CSR form. Repeated edges are kept
+ * until then and resolved last-write-wins, so for input with many
+ * repeated routes, such as DB1B files, AggregatingSink.toCompactGraph
+ * needs less memory.
+ * Sample usage:
+ *   CompactGraphSink sink = new CompactGraphSink();
+ *   parser.parse(sink);
+ *   CompactGraph cg = sink.getGraph();
+ *   */
+public class CompactGraphSink implements EdgeSink {
+
+    // the node ids seen so far, and the number of each
+    private final SymbolTable codes = new SymbolTable();
+    private int[] src = new int[EdgeBuffer.BATCH];
+    private int[] dst = new int[EdgeBuffer.BATCH];
+    private double[] weights = new double[EdgeBuffer.BATCH];
+    private int m; // number of edges received
+
+    @Override
+    public void accept(String[] origs, String[] dests, double[] w,
+            int count) {
+        if (m + count > src.length) {
+            int capacity = Math.max(src.length * 2, m + count);
+            src = Arrays.copyOf(src, capacity);
+            dst = Arrays.copyOf(dst, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        for (int i = 0; i < count; i++) {
+            src[m] = codes.intern(origs[i]);
+            dst[m] = codes.intern(dests[i]);
+            weights[m] = w[i];
+            m++;
+        }
+    }
+
+    /** Return a CompactGraph of the edges received so far. */
+    public CompactGraph getGraph() {
+        return CompactGraph.fromNumberedEdges(codes.toArray(),
+                Arrays.copyOf(src, m), Arrays.copyOf(dst, m),
+                Arrays.copyOf(weights, m), m);
+    }
+}
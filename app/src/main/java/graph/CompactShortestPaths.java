@@ -0,0 +1,125 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/** Dijkstra's single-source shortest paths algorithm over a CompactGraph.
+ * Distances and backpointers are stored in arrays indexed by dense node id
+ * rather than in a map of PathData records.
+ * Sample usage:
+ *   CompactGraph cg = new CompactGraph(g);
+ *   CompactShortestPaths sp = new CompactShortestPaths(cg);
+ *   sp.compute(g.getNode("A"));
+ *   LinkedList<Node> abPath = sp.shortestPath(g.getNode("B"));
+ *   double abPathLength = sp.shortestPathLength(g.getNode("B"));
+ *   */
+public class CompactShortestPaths {
+
+    private final CompactGraph graph;
+    private final FrontierType frontierType; // priority queue to use
+    private double[] dist; // dist[u] is u's distance from the origin
+    private int[] prev; // prev[u] is the previous node on u's path, or -1
+
+    /** Constructor: prepare to compute shortest paths in graph. */
+    public CompactShortestPaths(CompactGraph graph) {
+        this(graph, FrontierType.BINARY);
+    }
+
+    /** Constructor: prepare to compute shortest paths in graph using the
+     * given kind of frontier. */
+    public CompactShortestPaths(CompactGraph graph,
+            FrontierType frontierType) {
+        this.graph = graph;
+        this.frontierType = frontierType;
+    }
+
+    /** Return the graph this instance computes paths in. */
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    /** Compute the shortest path to all nodes from origin.
+     * Precondition: origin is a node in the graph. */
+    public void compute(Node origin) {
+        compute(graph.indexOf(origin));
+    }
+
+    /** Compute the shortest path to all nodes from the node with id origin.
+     * Precondition: 0 <= origin < graph.size() */
+    public void compute(int origin) {
+        dist = new double[graph.size()];
+        prev = new int[graph.size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(prev, -1);
+
+        Frontier h = frontierType.create(graph.size());
+        dist[origin] = 0.0;
+        h.add(origin, 0.0);
+
+        while (h.size() > 0) {
+            int f = h.poll();
+            double fDist = dist[f];
+            for (int e = graph.edgeStart(f); e < graph.edgeEnd(f); e++) {
+                int w = graph.target(e);
+                double wDist = fDist + graph.weight(e);
+                // an infinite distance means w is in neither the frontier
+                // nor the settled set
+                if (dist[w] == Double.POSITIVE_INFINITY) {
+                    dist[w] = wDist;
+                    prev[w] = f;
+                    h.add(w, wDist);
+                } else if (wDist < dist[w]) {
+                    dist[w] = wDist;
+                    prev[w] = f;
+                    if (h.contains(w)) {
+                        h.changePriority(w, wDist);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Returns the length of the shortest path from the origin to
+     * destination, or Double.POSITIVE_INFINITY if no path exists.
+     * Precondition: compute(origin) has been called. */
+    public double shortestPathLength(Node destination) {
+        int d = graph.indexOf(destination);
+        return d < 0 ? Double.POSITIVE_INFINITY : dist[d];
+    }
+
+    /** Returns the length of the shortest path from the origin to the node
+     * with id destination, or Double.POSITIVE_INFINITY if no path exists.
+     * Precondition: compute(origin) has been called. */
+    public double shortestPathLength(int destination) {
+        return dist[destination];
+    }
+
+    /** Returns the id of the node before the node with id destination on
+     * its shortest path, or -1 if destination is the origin or unreachable.
+     * Precondition: compute(origin) has been called. */
+    public int previous(int destination) {
+        return prev[destination];
+    }
+
+    /** Returns a LinkedList of the nodes along the shortest path from origin
+     * to destination, including both ends, or null if no path exists.
+     * Precondition: compute(origin) has been called. */
+    public LinkedList<Node> shortestPath(Node destination) {
+        int d = graph.indexOf(destination);
+        return d < 0 ? null : shortestPath(d);
+    }
+
+    /** Returns a LinkedList of the nodes along the shortest path from origin
+     * to the node with id destination, or null if no path exists.
+     * Precondition: compute(origin) has been called. */
+    public LinkedList<Node> shortestPath(int destination) {
+        if (dist[destination] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        LinkedList<Node> pathToDest = new LinkedList<>();
+        for (int u = destination; u != -1; u = prev[u]) {
+            pathToDest.addFirst(graph.getNode(u));
+        }
+        return pathToDest;
+    }
+}
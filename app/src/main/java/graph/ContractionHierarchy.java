@@ -0,0 +1,377 @@
+package graph;
+
+import java.util.Arrays;
+
+/** A Contraction Hierarchy built from a CompactGraph, for fast point-to-point
+ * queries on a static graph (see CHShortestPaths).
+ *
+ * Nodes are contracted one at a time in order of increasing importance. To
+ * contract v, every path u -> v -> w between still-uncontracted neighbors is
+ * replaced by a shortcut edge u -> w unless a witness search finds a path
+ * from u to w that avoids v and is no longer. A node's importance is its edge
+ * difference (shortcuts it would add minus edges it would remove) plus the
+ * number of its neighbors already contracted, which spreads contraction
+ * evenly over the graph. Importance is re-evaluated lazily when a node
+ * reaches the front of the queue and for the neighbors of each contracted
+ * node. Preprocessing works best on road-like graphs with small separators;
+ * on random graphs the remaining core becomes dense and contraction is slow.
+ *
+ * A node's rank is its position in the contraction order. Each edge is stored
+ * at its lower-ranked endpoint: edges to higher-ranked nodes in the upward
+ * forward graph, and edges from higher-ranked nodes (reversed) in the upward
+ * backward graph. A shortcut records the node it bypasses, so that query
+ * results can be unpacked into original edges. */
+public class ContractionHierarchy {
+
+    /** witness searches while contracting stop after settling this many
+     * nodes */
+    public static final int WITNESS_SETTLE_LIMIT = 500;
+
+    /** witness searches while estimating importance stop after settling
+     * this many nodes; overestimating shortcuts there only affects order */
+    public static final int SIMULATION_SETTLE_LIMIT = 50;
+
+    private final CompactGraph graph;
+    private final int[] rank; // rank[v] is v's position in contraction order
+    private final int shortcuts; // number of shortcut edges added
+
+    // upward forward edges of u: fwdTarget[fwdOffsets[u]..fwdOffsets[u+1]-1]
+    final int[] fwdOffsets;
+    final int[] fwdTarget;
+    final double[] fwdWeight;
+    final int[] fwdMiddle; // bypassed node of a shortcut, or -1
+
+    // upward backward edges of u: an entry with target x stands for the
+    // edge x -> u, where x has higher rank than u
+    final int[] bwdOffsets;
+    final int[] bwdTarget;
+    final double[] bwdWeight;
+    final int[] bwdMiddle;
+
+    private ContractionHierarchy(CompactGraph graph, int[] rank,
+            int shortcuts, EdgeList[] out, EdgeList[] in) {
+        this.graph = graph;
+        this.rank = rank;
+        this.shortcuts = shortcuts;
+        int n = graph.size();
+
+        fwdOffsets = new int[n + 1];
+        bwdOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            fwdOffsets[v + 1] = fwdOffsets[v] + out[v].size;
+            bwdOffsets[v + 1] = bwdOffsets[v] + in[v].size;
+        }
+        fwdTarget = new int[fwdOffsets[n]];
+        fwdWeight = new double[fwdOffsets[n]];
+        fwdMiddle = new int[fwdOffsets[n]];
+        bwdTarget = new int[bwdOffsets[n]];
+        bwdWeight = new double[bwdOffsets[n]];
+        bwdMiddle = new int[bwdOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            out[v].copyTo(fwdOffsets[v], fwdTarget, fwdWeight, fwdMiddle);
+            in[v].copyTo(bwdOffsets[v], bwdTarget, bwdWeight, bwdMiddle);
+        }
+    }
+
+    /** Build a contraction hierarchy for a compact copy of g. */
+    public static ContractionHierarchy build(Graph g) {
+        return build(new CompactGraph(g));
+    }
+
+    /** Build a contraction hierarchy for g. */
+    public static ContractionHierarchy build(CompactGraph g) {
+        return new Builder(g).build();
+    }
+
+    /** Return the graph this hierarchy was built from. */
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    /** Return the rank of node v in the contraction order. */
+    public int rank(int v) {
+        return rank[v];
+    }
+
+    /** Return the number of shortcut edges added during preprocessing. */
+    public int shortcutCount() {
+        return shortcuts;
+    }
+
+    /* Return the index in the bwd arrays of the edge from x to lower-ranked
+     * node v, or -1 if there is none. */
+    int findBackward(int v, int x) {
+        for (int e = bwdOffsets[v]; e < bwdOffsets[v + 1]; e++) {
+            if (bwdTarget[e] == x) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    /* Return the index in the fwd arrays of the edge from v to higher-ranked
+     * node x, or -1 if there is none. */
+    int findForward(int v, int x) {
+        for (int e = fwdOffsets[v]; e < fwdOffsets[v + 1]; e++) {
+            if (fwdTarget[e] == x) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    /** A growable list of edges (neighbor, weight, middle) of one node. */
+    static class EdgeList {
+        int[] node = new int[4];
+        double[] weight = new double[4];
+        int[] middle = new int[4];
+        int size;
+
+        /* Append an edge. */
+        void add(int v, double w, int mid) {
+            if (size == node.length) {
+                node = Arrays.copyOf(node, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+                middle = Arrays.copyOf(middle, size * 2);
+            }
+            node[size] = v;
+            weight[size] = w;
+            middle[size] = mid;
+            size++;
+        }
+
+        /* Return the position of the edge to v, or -1. */
+        int find(int v) {
+            for (int i = 0; i < size; i++) {
+                if (node[i] == v) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /* Remove edges to contracted nodes. */
+        void removeContracted(boolean[] contracted) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!contracted[node[i]]) {
+                    node[kept] = node[i];
+                    weight[kept] = weight[i];
+                    middle[kept] = middle[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        /* Copy the edges into the given arrays starting at index start. */
+        void copyTo(int start, int[] nodes, double[] weights, int[] mids) {
+            System.arraycopy(node, 0, nodes, start, size);
+            System.arraycopy(weight, 0, weights, start, size);
+            System.arraycopy(middle, 0, mids, start, size);
+        }
+    }
+
+    /** Performs the node ordering and contraction. */
+    private static class Builder {
+        final CompactGraph g;
+        final int n;
+        final EdgeList[] out; // current outgoing edges of each node
+        final EdgeList[] in; // current incoming edges of each node
+        final boolean[] contracted;
+        final int[] contractedNeighbors;
+        final int[] rank;
+        int shortcuts;
+
+        // witness search workspace, reset lazily with a stamp
+        final double[] dist;
+        final int[] stamp;
+        final int[] targetStamp; // targetStamp[w] == search if w is a target
+        int search;
+        final IntHeap witnessHeap;
+
+        Builder(CompactGraph g) {
+            this.g = g;
+            n = g.size();
+            out = new EdgeList[n];
+            in = new EdgeList[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new EdgeList();
+                in[v] = new EdgeList();
+            }
+            for (int u = 0; u < n; u++) {
+                for (int e = g.edgeStart(u); e < g.edgeEnd(u); e++) {
+                    int w = g.target(e);
+                    // self loops are never part of a shortest path
+                    if (w != u) {
+                        out[u].add(w, g.weight(e), -1);
+                        in[w].add(u, g.weight(e), -1);
+                    }
+                }
+            }
+            contracted = new boolean[n];
+            contractedNeighbors = new int[n];
+            rank = new int[n];
+            dist = new double[n];
+            stamp = new int[n];
+            targetStamp = new int[n];
+            witnessHeap = new IntHeap(n);
+        }
+
+        ContractionHierarchy build() {
+            IntHeap order = new IntHeap(n);
+            for (int v = 0; v < n; v++) {
+                order.add(v, importance(v));
+            }
+
+            int next = 0;
+            while (order.size() > 0) {
+                int v = order.poll();
+                // lazy update: if v's importance has grown past the next
+                // candidate's, put it back and try again
+                double p = importance(v);
+                if (order.size() > 0 && p > order.priority(order.peek())) {
+                    order.add(v, p);
+                    continue;
+                }
+                contract(v);
+                rank[v] = next++;
+
+                for (int i = 0; i < out[v].size; i++) {
+                    contractedNeighbors[out[v].node[i]]++;
+                }
+                for (int i = 0; i < in[v].size; i++) {
+                    contractedNeighbors[in[v].node[i]]++;
+                }
+                for (int i = 0; i < out[v].size; i++) {
+                    int w = out[v].node[i];
+                    order.changePriority(w, importance(w));
+                }
+                for (int i = 0; i < in[v].size; i++) {
+                    int u = in[v].node[i];
+                    order.changePriority(u, importance(u));
+                }
+            }
+            return new ContractionHierarchy(g, rank, shortcuts, out, in);
+        }
+
+        /* Return v's edge difference plus its number of contracted
+         * neighbors. */
+        double importance(int v) {
+            out[v].removeContracted(contracted);
+            in[v].removeContracted(contracted);
+            int added = shortcutsFor(v, false);
+            return added - out[v].size - in[v].size + contractedNeighbors[v];
+        }
+
+        /* Contract v: add the shortcuts it needs and mark it contracted. Its
+         * remaining edges all lead to higher-ranked nodes. */
+        void contract(int v) {
+            out[v].removeContracted(contracted);
+            in[v].removeContracted(contracted);
+            shortcuts += shortcutsFor(v, true);
+            contracted[v] = true;
+        }
+
+        /* Return the number of shortcuts needed to contract v, adding them
+         * to the graph if add is true. */
+        int shortcutsFor(int v, boolean add) {
+            EdgeList vOut = out[v];
+            EdgeList vIn = in[v];
+            double maxOut = 0;
+            for (int j = 0; j < vOut.size; j++) {
+                maxOut = Math.max(maxOut, vOut.weight[j]);
+            }
+
+            int count = 0;
+            for (int i = 0; i < vIn.size; i++) {
+                int u = vIn.node[i];
+                double uv = vIn.weight[i];
+                witnessSearch(u, v, uv + maxOut, vOut,
+                        add ? WITNESS_SETTLE_LIMIT : SIMULATION_SETTLE_LIMIT);
+                for (int j = 0; j < vOut.size; j++) {
+                    int w = vOut.node[j];
+                    if (w == u) {
+                        continue;
+                    }
+                    double via = uv + vOut.weight[j];
+                    boolean witnessed = stamp[w] == search && dist[w] <= via;
+                    if (!witnessed && (!add || addShortcut(u, w, via, v))) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        /* Run Dijkstra from u over uncontracted nodes other than skip. Stop
+         * once every node in targets is settled, the next node is farther
+         * than maxDist, or limit nodes have been settled. */
+        void witnessSearch(int u, int skip, double maxDist, EdgeList targets,
+                int limit) {
+            search++;
+            int targetsLeft = 0;
+            for (int j = 0; j < targets.size; j++) {
+                if (targetStamp[targets.node[j]] != search) {
+                    targetStamp[targets.node[j]] = search;
+                    targetsLeft++;
+                }
+            }
+            witnessHeap.clear();
+            dist[u] = 0.0;
+            stamp[u] = search;
+            witnessHeap.add(u, 0.0);
+            int settled = 0;
+            while (witnessHeap.size() > 0 && settled < limit
+                    && targetsLeft > 0) {
+                int x = witnessHeap.poll();
+                settled++;
+                double xDist = dist[x];
+                if (xDist > maxDist) {
+                    break;
+                }
+                if (targetStamp[x] == search) {
+                    targetsLeft--;
+                }
+                EdgeList xOut = out[x];
+                for (int i = 0; i < xOut.size; i++) {
+                    int y = xOut.node[i];
+                    if (y == skip || contracted[y]) {
+                        continue;
+                    }
+                    double yDist = xDist + xOut.weight[i];
+                    if (stamp[y] != search) {
+                        stamp[y] = search;
+                        dist[y] = yDist;
+                        witnessHeap.add(y, yDist);
+                    } else if (yDist < dist[y]) {
+                        dist[y] = yDist;
+                        if (witnessHeap.contains(y)) {
+                            witnessHeap.changePriority(y, yDist);
+                        }
+                    }
+                }
+            }
+        }
+
+        /* Add the shortcut u -> w with the given weight bypassing v, or
+         * lower the weight of an existing u -> w edge. Return true if a new
+         * edge was added. */
+        boolean addShortcut(int u, int w, double weight, int v) {
+            int i = out[u].find(w);
+            if (i >= 0) {
+                if (out[u].weight[i] > weight) {
+                    out[u].weight[i] = weight;
+                    out[u].middle[i] = v;
+                    int j = in[w].find(u);
+                    in[w].weight[j] = weight;
+                    in[w].middle[j] = v;
+                }
+                return false;
+            }
+            out[u].add(w, weight, v);
+            in[w].add(u, weight, v);
+            return true;
+        }
+    }
+}
@@ -4,26 +4,48 @@ import java.util.Scanner;
 import java.util.HashMap;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.ListIterator;
 
+/** Parser for a DB1B CSV file with flight data. The header line names the
+ * columns; the origin, dest and distance columns are used.
+ *
+ * Rows are streamed into an AggregatingSink, which collapses them into
+ * unique (origin, dest) routes, and the Graph is only built from the
+ * unique routes, so its cost depends on the number of routes rather than
+ * the number of rows. Repeated routes are combined by a DuplicatePolicy:
+ * by default the last row wins, as with Node.addNeighbor. The rows can
+ * also be streamed to any other EdgeSink with parse(EdgeSink). */
 public class DB1BParser extends GraphParser {
 
     private Scanner sc; // a scanner reading the CSV file
+    private File file; // the file being read
 
     // map csv headers to column indices
     private HashMap<String,Integer> fieldKey;
 
-    private Graph graph;
+    // column indices of the fields we need, looked up once from fieldKey
+    private int originCol;
+    private int destCol;
+    private int distanceCol;
+
+    // how repeated routes are combined by parse()
+    private final DuplicatePolicy policy;
 
     /** Constructor: create parser. */
     public DB1BParser() {
-        graph = new Graph();
+        this(DuplicatePolicy.LAST);
+    }
+
+    /** Constructor: create a parser that combines repeated routes with
+     * policy. */
+    public DB1BParser(DuplicatePolicy policy) {
+        this.policy = policy;
     }
 
     /** Open the given file and prepare to parse it. */
     @Override
     public void open(File f) throws FileNotFoundException {
         sc = new Scanner(f);
+        file = f;
         parseHeaders(sc.nextLine());
     }
 
@@ -31,28 +53,54 @@ public class DB1BParser extends GraphParser {
      * file. Precondition: open() has been successfully called. */
     @Override
     public Graph parse() {
-        graph = new Graph();
-        while (sc.hasNextLine()) {
-            parseFlight(sc.nextLine().split(","));
-        }
-        return graph;
+        return parse(-1);
     }
 
-    /* Parse a line of the DB1B CSV file and construct a Flight object (edge)
-     * representing the data given in that line.  If the origin or destination
-     * airport is not a node in the graph, add it to the graph. Add this Flight
-     * to the list of departures from the origin. */
-    private void parseFlight(String[] fields) {
-        String origCode = fields[fieldKey.get("origin")].replace("\"","");;
-        String destCode = fields[fieldKey.get("dest")].replace("\"","");;
-
-        // if origin is not in graph, parse and create the new Airport
+    /** Parse at most maxLines lines after the header of an opened file, or
+     * all of them if maxLines is negative, and return a Graph representing
+     * their data. Precondition: open() has been successfully called. */
+    public Graph parse(int maxLines) {
+        AggregatingSink routes = new AggregatingSink(policy);
+        parse(maxLines, routes);
+        return routes.toGraph();
+    }
 
-        Node orig = graph.getNode(origCode);
-        Node dest = graph.getNode(destCode);
+    /** Parse an opened file and pass each row's flight to sink, in batches,
+     * in file order. Every row is passed on, so combining repeated routes
+     * is up to the sink; the parser's DuplicatePolicy is not used.
+     * Precondition: open() has been successfully called. */
+    @Override
+    public void parse(EdgeSink sink) {
+        parse(-1, sink);
+    }
 
-        double miles = Double.parseDouble(fields[fieldKey.get("distance")]);
-        graph.addEdge(orig, dest, miles);
+    /** As parse(sink), but stop after maxLines lines if maxLines is
+     * non-negative. Records a ParseEvent for Flight Recorder. */
+    public void parse(int maxLines, EdgeSink sink) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        EdgeBuffer out = new EdgeBuffer(sink);
+        int lines = 0;
+        long chars = 0;
+        while (sc.hasNextLine() && lines != maxLines) {
+            String line = sc.nextLine();
+            String[] fields = line.split(",");
+            String origCode = fields[originCol].replace("\"","");
+            String destCode = fields[destCol].replace("\"","");
+            double miles = Double.parseDouble(fields[distanceCol]);
+            out.add(origCode, destCode, miles);
+            lines++;
+            chars += line.length() + 1;
+        }
+        out.flush();
+        event.end();
+        if (event.shouldCommit()) {
+            event.parser = "DB1BParser";
+            event.file = file.getPath();
+            event.rows = lines;
+            event.bytes = chars;
+            event.commit();
+        }
     }
 
     /* create fieldKey from the header line of the csv file.
@@ -64,14 +112,21 @@ public class DB1BParser extends GraphParser {
             fieldKey.put(headers[i].replace("\"","").toLowerCase(), i);
             //System.out.println(headers[i] + ": " + i);
         }
+        originCol = fieldKey.get("origin");
+        destCol = fieldKey.get("dest");
+        distanceCol = fieldKey.get("distance");
     }
 
     /** Main method: open a csv file and parse a graph.
      *  If no command line arguments are given, parse the entire file.
      *  If one command line is given, it specifies the maximum number of lines
-     *  to parse before ignoring the rest of the file. */
+     *  to parse before ignoring the rest of the file (-1 for no limit).
+     *  A third argument names the DuplicatePolicy used to combine repeated
+     *  routes: last (the default), first, min, max, mean or count. */
     public static void main(String[] args) {
-        DB1BParser parser = new DB1BParser();
+        DuplicatePolicy policy = args.length > 2 ?
+            DuplicatePolicy.parse(args[2]) : DuplicatePolicy.LAST;
+        DB1BParser parser = new DB1BParser(policy);
         try {
             parser.open(new File(args[0]));
         } catch (FileNotFoundException e) {
@@ -83,7 +138,7 @@ public class DB1BParser extends GraphParser {
             maxLines = Integer.parseInt(args[1]);
         }
 
-        Graph g = parser.parse();
+        Graph g = parser.parse(maxLines);
         g.report();
     }
 
@@ -0,0 +1,172 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** An indexed min-heap like IntHeap, but each node has d children instead of
+ * two. A wider heap is shallower, so changePriority decreases (which only
+ * move up) are cheaper, at the price of comparing d children per level in
+ * poll. */
+public final class DaryHeap implements Frontier {
+
+    /* Class Invariants:
+     *   1. heap[0..size-1] is a complete d-ary tree: the children of heap[i]
+     *      are heap[d*i+1..d*i+d].
+     *   2. prio[heap[i]] >= prio[heap[(i-1)/d]] for every i > 0.
+     *   3. pos[v] == i iff heap[i] == v for some i < size; otherwise
+     *      pos[v] == -1 (or v >= pos.length). */
+    private final int d; // number of children per node
+    private int[] heap; // values in heap order
+    private int[] pos; // pos[v] is the index of v in heap, or -1
+    private double[] prio; // prio[v] is v's priority while v is in the heap
+    private int size;
+
+    /** Constructor: an empty d-ary heap with room for values
+     * 0..capacity-1. Precondition: d >= 2 */
+    public DaryHeap(int d, int capacity) {
+        this.d = d;
+        capacity = Math.max(capacity, 1);
+        heap = new int[capacity];
+        pos = new int[capacity];
+        prio = new double[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int v) {
+        return v < pos.length && pos[v] >= 0;
+    }
+
+    @Override
+    public void add(int v, double p) {
+        if (v < 0 || contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        growIfNeeded(v);
+        prio[v] = p;
+        bubbleUp(size++, v);
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int first = heap[0];
+        pos[first] = -1;
+        size--;
+        if (size > 0) {
+            bubbleDown(0, heap[size]);
+        }
+        return first;
+    }
+
+    @Override
+    public void changePriority(int v, double p) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        if (Metrics.ENABLED) {
+            Metrics.frontierChangePriorityCalls.increment();
+        }
+        double old = prio[v];
+        prio[v] = p;
+        if (p < old) {
+            bubbleUp(pos[v], v);
+        } else if (p > old) {
+            bubbleDown(pos[v], v);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /* Move v up from the hole at index k to its place. */
+    private void bubbleUp(int k, int v) {
+        double p = prio[v];
+        while (k > 0) {
+            int parentIdx = (k - 1) / d;
+            int parent = heap[parentIdx];
+            if (p >= prio[parent]) {
+                break;
+            }
+            heap[k] = parent;
+            pos[parent] = k;
+            k = parentIdx;
+        }
+        heap[k] = v;
+        pos[v] = k;
+    }
+
+    /* Move v down from the hole at index k to its place. Among tied
+     * children, the last one is chosen. */
+    private void bubbleDown(int k, int v) {
+        double p = prio[v];
+        while (true) {
+            int first = d * k + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + d, size);
+            int child = first;
+            double childPrio = prio[heap[first]];
+            for (int i = first + 1; i < last; i++) {
+                double q = prio[heap[i]];
+                if (q <= childPrio) {
+                    child = i;
+                    childPrio = q;
+                }
+            }
+            if (p <= childPrio) {
+                break;
+            }
+            int c = heap[child];
+            heap[k] = c;
+            pos[c] = k;
+            k = child;
+        }
+        heap[k] = v;
+        pos[v] = k;
+    }
+
+    /* Grow the arrays so that value v fits, doubling capacity as needed. */
+    private void growIfNeeded(int v) {
+        if (v >= pos.length) {
+            grow(v);
+        }
+    }
+
+    /* Double the capacity of the arrays until value v fits, recording a
+     * ResizeEvent for Flight Recorder. */
+    private void grow(int v) {
+        ResizeEvent event = new ResizeEvent();
+        event.begin();
+        int newCap = pos.length;
+        while (newCap <= v) {
+            newCap *= 2;
+        }
+        int oldCap = pos.length;
+        heap = Arrays.copyOf(heap, newCap);
+        prio = Arrays.copyOf(prio, newCap);
+        pos = Arrays.copyOf(pos, newCap);
+        Arrays.fill(pos, oldCap, newCap, -1);
+        event.end();
+        if (event.shouldCommit()) {
+            event.collection = DaryHeap.class;
+            event.oldCapacity = oldCap;
+            event.newCapacity = newCap;
+            event.entriesMoved = oldCap;
+            event.commit();
+        }
+    }
+}
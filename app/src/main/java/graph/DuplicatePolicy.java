@@ -0,0 +1,47 @@
+package graph;
+
+/** How to combine the weights of a route that appears more than once in
+ * the input, such as a DB1B market flown on many itineraries.
+ *   LAST  - keep the last weight, as Node.addNeighbor does (the default)
+ *   FIRST - keep the first weight
+ *   MIN   - keep the smallest weight
+ *   MAX   - keep the largest weight
+ *   MEAN  - average the weights
+ *   COUNT - use the number of times the route appears as its weight
+ * Routes can be combined in pieces: the rows of each part of a file are
+ * combined first, and then the parts, in file order. */
+public enum DuplicatePolicy {
+    LAST, FIRST, MIN, MAX, MEAN, COUNT;
+
+    /** Return the combined weight of a route that has appeared once, with
+     * weight w. */
+    public double initial(double w) {
+        return this == COUNT ? 1 : w;
+    }
+
+    /** Return the combined weight of a route made of oldCount earlier
+     * appearances with combined weight old followed by count later ones
+     * with combined weight w. */
+    public double combine(double old, int oldCount, double w, int count) {
+        switch (this) {
+            case FIRST:
+                return old;
+            case MIN:
+                return Math.min(old, w);
+            case MAX:
+                return Math.max(old, w);
+            case MEAN:
+                return (old * oldCount + w * count) / (oldCount + count);
+            case COUNT:
+                return old + w;
+            default:
+                return w;
+        }
+    }
+
+    /** Return the policy with the given case-insensitive name.
+     * @throws IllegalArgumentException if there is no such policy. */
+    public static DuplicatePolicy parse(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
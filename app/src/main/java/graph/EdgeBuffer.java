@@ -0,0 +1,39 @@
+package graph;
+
+/** Collects edges one at a time and passes them on to an EdgeSink in
+ * batches of a fixed size, reusing the same arrays for every batch. */
+final class EdgeBuffer {
+
+    /** The number of edges in a full batch. */
+    static final int BATCH = 1024;
+
+    private final EdgeSink sink;
+    private final String[] origs = new String[BATCH];
+    private final String[] dests = new String[BATCH];
+    private final double[] weights = new double[BATCH];
+    private int count;
+
+    /** Constructor: a buffer that sends its batches to sink. */
+    EdgeBuffer(EdgeSink sink) {
+        this.sink = sink;
+    }
+
+    /** Add the edge orig -> dest with weight w, sending the batch to the
+     * sink if it is full. */
+    void add(String orig, String dest, double w) {
+        origs[count] = orig;
+        dests[count] = dest;
+        weights[count] = w;
+        if (++count == BATCH) {
+            flush();
+        }
+    }
+
+    /** Send any buffered edges to the sink. */
+    void flush() {
+        if (count > 0) {
+            sink.accept(origs, dests, weights, count);
+            count = 0;
+        }
+    }
+}
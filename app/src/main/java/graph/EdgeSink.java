@@ -0,0 +1,15 @@
+package graph;
+
+/** A consumer of the edges a GraphParser reads, for building a structure
+ * other than Graph without building a Graph first. A parser pushes edges to
+ * its sink in batches, in file order; see GraphParser.parse(EdgeSink).
+ * Sinks provided are GraphSink, which builds a Graph, CompactGraphSink,
+ * which builds a CompactGraph, and AggregatingSink, which collapses
+ * repeated routes with a DuplicatePolicy. */
+public interface EdgeSink {
+
+    /** Receive the edges origs[i] -> dests[i] with weight weights[i] for
+     * 0 <= i < count. The arrays belong to the parser and are reused for
+     * the next batch, so a sink must copy anything it keeps. */
+    void accept(String[] origs, String[] dests, double[] weights, int count);
+}
@@ -0,0 +1,32 @@
+package graph;
+
+import java.util.NoSuchElementException;
+
+/** The frontier of Dijkstra's algorithm: a min-priority queue of distinct
+ * non-negative int keys with double priorities. Implementations trade off the
+ * cost of add, poll and changePriority differently; see FrontierType for the
+ * available choices. */
+public interface Frontier {
+
+    /** Return the number of keys in the frontier. */
+    int size();
+
+    /** Return true if v is in the frontier, false otherwise. */
+    boolean contains(int v);
+
+    /** Add v with priority p.
+     * @throws IllegalArgumentException if v is already in the frontier. */
+    void add(int v, double p);
+
+    /** Remove and return the key with lowest priority.
+     * @throws NoSuchElementException if the frontier is empty. */
+    int poll() throws NoSuchElementException;
+
+    /** Change the priority of v to p. Dijkstra's algorithm only ever lowers
+     * priorities, but implementations must also accept increases.
+     * @throws IllegalArgumentException if v is not in the frontier. */
+    void changePriority(int v, double p);
+
+    /** Remove all keys from the frontier. */
+    void clear();
+}
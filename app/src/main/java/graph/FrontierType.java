@@ -0,0 +1,52 @@
+package graph;
+
+/** The priority queue implementations available for Dijkstra's frontier.
+ *   HEAP    - the generic Heap<Integer,Double>, with boxed priorities
+ *   BINARY  - IntHeap, an array-based binary heap (the default)
+ *   DARY4   - DaryHeap with 4 children per node
+ *   DARY8   - DaryHeap with 8 children per node
+ *   PAIRING - PairingHeap, with O(1) amortized changePriority decreases
+ *   LAZY    - LazyFrontier, which inserts duplicates instead of decreasing
+ *             keys and skips stale entries on poll
+ *   BUCKET  - BucketQueue, for graphs whose weights are all non-negative
+ *             integers of moderate size */
+public enum FrontierType {
+    HEAP, BINARY, DARY4, DARY8, PAIRING, LAZY, BUCKET;
+
+    /** Return a new, empty frontier of this type with room for keys
+     * 0..capacity-1. */
+    public Frontier create(int capacity) {
+        switch (this) {
+            case HEAP:
+                return new HeapFrontier();
+            case DARY4:
+                return new DaryHeap(4, capacity);
+            case DARY8:
+                return new DaryHeap(8, capacity);
+            case PAIRING:
+                return new PairingHeap(capacity);
+            case LAZY:
+                return new LazyFrontier(capacity);
+            case BUCKET:
+                return new BucketQueue(capacity, 1024);
+            default:
+                return new IntHeap(capacity);
+        }
+    }
+
+    /** Return the best frontier type for g: BUCKET if every edge weight
+     * added to g is a non-negative integer no larger than
+     * BucketQueue.MAX_AUTO_WEIGHT, and BINARY otherwise. Larger weights
+     * would make the bucket array too large and slow to scan. */
+    public static FrontierType forGraph(Graph g) {
+        return g.hasIntegerWeights()
+            && g.getMaxWeight() <= BucketQueue.MAX_AUTO_WEIGHT ?
+            BUCKET : BINARY;
+    }
+
+    /** Return the frontier type with the given case-insensitive name.
+     * @throws IllegalArgumentException if there is no such type. */
+    public static FrontierType parse(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
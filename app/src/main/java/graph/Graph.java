@@ -1,54 +1,182 @@
 package graph;
 
-import java.util.Map;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
 /** A graph class representing a directed graph in adjacency-list style format.
  * The Graph stores a mapping from unique String node identifiers to respective
- * Node objects. Edges are stored in each Node's neighbors, accessible by its
- * getNeighbors field. */
+ * Node objects. Identifiers are interned by a SymbolTable, whose dense int
+ * ids are the nodes' indexes, so a node can also be named by its int id.
+ * Edges are stored in each Node's neighbors, accessible by its getNeighbors
+ * field, and again in the destination Node's incoming edges, accessible by
+ * getIncoming, so that edges can be walked backwards.
+ *
+ * Once built, a graph can be frozen. A frozen graph rejects new nodes and
+ * edges, so any number of threads may read it at the same time, as
+ * BatchShortestPaths does. */
 public class Graph {
 
-    // maps node ids to nodes:
-    private HashMap<String,Node> nodes;
+    // maps node identifiers to indexes:
+    private SymbolTable symbols;
+
+    // the nodes in order of creation, so that byIndex.get(i) has index i
+    private ArrayList<Node> byIndex;
+
+    // read-only view of the nodes by identifier, returned by getNodes
+    private Map<String,Node> nodes;
+
+    // true if every weight passed to addEdge so far was a non-negative
+    // integer, such as a DB1B route mileage
+    private boolean integerWeights = true;
+
+    // the largest weight passed to addEdge so far
+    private double maxWeight;
+
+    // true once freeze has been called
+    private boolean frozen;
+
+    // incremented whenever a node is created or an edge is added or
+    // changed, so that derived data such as cached paths can tell when it
+    // is out of date
+    private int version;
 
     /** Constructor: create an empty graph */
     public Graph() {
-        nodes = new HashMap<String,Node>();
+        symbols = new SymbolTable();
+        byIndex = new ArrayList<Node>();
+        nodes = new NodeMap();
     }
 
     /** Return the node with id s. If no such node exists already, create
-     * and return it. */
+     * and return it; new nodes get consecutive indexes 0, 1, 2, ... (see
+     * Node.getIndex).
+     * @throws IllegalStateException if the node would be created in a
+     * frozen graph. */
     public Node getNode(String s) {
-        if (nodes.containsKey(s)) {
-            return nodes.get(s);
+        int i = symbols.find(s);
+        if (i >= 0) {
+            return byIndex.get(i);
         }
+        checkNotFrozen();
         Node n = new Node(s);
-        nodes.put(s, n);
+        n.setIndex(symbols.intern(s));
+        byIndex.add(n);
+        version++;
         return n;
     }
 
+    /** Return the index of the node with id s, or -1 if there is none. */
+    public int indexOf(String s) {
+        return symbols.find(s);
+    }
+
+    /** Return the node with the given index (see Node.getIndex).
+     * Precondition: 0 <= index < size() */
+    public Node getNode(int index) {
+        return byIndex.get(index);
+    }
+
+    /** Return the number of nodes in the graph. */
+    public int size() {
+        return byIndex.size();
+    }
+
     /** Return a read-only view on the map from node ids to nodes. This is
      * read-only to avoid modification by client code that could create nodes
      * with duplicate id's. Node creation should be done exclusively with
-     * getNode.  */
+     * getNode. The map iterates over the nodes in index order. */
     public Map<String,Node> getNodes() {
-        return Collections.unmodifiableMap(nodes);
+        return nodes;
     }
 
     /** Add an edge to the graph. If an edge from orig to
-     * dest exists already, overwrite it. */
+     * dest exists already, overwrite it.
+     * @throws IllegalStateException if the graph is frozen.
+     * @throws IllegalArgumentException if orig or dest was not created by
+     * this graph's getNode. */
     public void addEdge(Node orig, Node dest, double distance) {
-        orig.addNeighbor(dest, distance);
+        checkNotFrozen();
+        checkOwned(orig);
+        checkOwned(dest);
+        Double old = orig.addNeighbor(dest, distance);
+        if (old == null || old != distance) {
+            version++;
+        }
+        dest.addIncoming(orig, distance);
+        if (distance < 0 || distance != Math.rint(distance)) {
+            integerWeights = false;
+        }
+        maxWeight = Math.max(maxWeight, distance);
+    }
+
+    /** Add an edge from the node with index orig to the node with index
+     * dest, as addEdge(getNode(orig), getNode(dest), distance) does.
+     * Precondition: 0 <= orig, dest < size() */
+    public void addEdge(int orig, int dest, double distance) {
+        addEdge(byIndex.get(orig), byIndex.get(dest), distance);
+    }
+
+    /** Return true if every edge weight added with addEdge was a
+     * non-negative integer. Such graphs can use a BucketQueue frontier. */
+    public boolean hasIntegerWeights() {
+        return integerWeights;
+    }
+
+    /** Return the largest edge weight added with addEdge, or 0 if no
+     * edges have been added. An edge's weight counts even if it was later
+     * overwritten, so this is an upper bound on the current weights. */
+    public double getMaxWeight() {
+        return maxWeight;
+    }
+
+    /** Return a number that changes whenever a node is created or an edge
+     * is added or given a new weight. */
+    public int getVersion() {
+        return version;
+    }
+
+    /** Freeze the graph: from now on getNode and addEdge throw instead of
+     * changing it. A frozen graph is never modified again, so threads that
+     * start after freeze returns can read it without locking. */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /** Return true if freeze has been called. */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /* Throw an IllegalStateException if the graph is frozen. */
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("graph is frozen");
+        }
+    }
+
+    /* Throw an IllegalArgumentException unless n was created by this
+     * graph's getNode. ShortestPaths keeps per-node data in arrays indexed
+     * by Node.getIndex, so an edge to any other node would break it. */
+    private void checkOwned(Node n) {
+        int i = n.getIndex();
+        if (i < 0 || i >= byIndex.size() || byIndex.get(i) != n) {
+            throw new IllegalArgumentException("node " + n.getId()
+                    + " does not belong to this graph");
+        }
     }
 
     /** Print a report of the graph's statistics, including number of nodes,
      * number of edges, and average degree. */
     public void report() {
-        int numNodes = nodes.size();
+        int numNodes = byIndex.size();
         int numEdges = 0;
-        for (Node n : nodes.values()) {
+        for (Node n : byIndex) {
             numEdges += n.getNeighbors().size();
         }
 
@@ -59,4 +187,56 @@ public class Graph {
                 ((double) numEdges) / ((double) numNodes));
     }
 
+    /* A read-only map from node identifiers to nodes, backed by symbols and
+     * byIndex. */
+    private class NodeMap extends AbstractMap<String,Node> {
+
+        @Override
+        public int size() {
+            return byIndex.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && symbols.find((String) key) >= 0;
+        }
+
+        @Override
+        public Node get(Object key) {
+            int i = key instanceof String ? symbols.find((String) key) : -1;
+            return i >= 0 ? byIndex.get(i) : null;
+        }
+
+        @Override
+        public Collection<Node> values() {
+            return Collections.unmodifiableList(byIndex);
+        }
+
+        @Override
+        public Set<Map.Entry<String,Node>> entrySet() {
+            return new AbstractSet<Map.Entry<String,Node>>() {
+                @Override
+                public int size() {
+                    return byIndex.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<String,Node>> iterator() {
+                    Iterator<Node> it = byIndex.iterator();
+                    return new Iterator<Map.Entry<String,Node>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String,Node> next() {
+                            Node n = it.next();
+                            return new SimpleImmutableEntry<>(n.getId(), n);
+                        }
+                    };
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,262 @@
+package graph;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+/** Writes large synthetic graphs, in the BasicParser or DB1BParser format,
+ * for testing the parsers and ShortestPaths at scale. Edges are generated
+ * and written one at a time, so files of any size are written in constant
+ * memory, and the same seed always gives the same file. Usage:
+ *   GraphGenerator SHAPE FORMAT NODES EDGES SEED [OUTPUT]
+ * SHAPE is one of
+ *   random   - each edge joins two uniformly chosen nodes
+ *   grid     - a square grid of about NODES cells, with edges both ways
+ *              between adjacent cells, up to EDGES edges
+ *   powerlaw - hub and spoke: one end of each edge is chosen with
+ *              probability about proportional to 1 / rank, so a few hubs
+ *              have most of the edges, as in airline networks
+ *   db1b     - like powerlaw, but each edge is a DB1B ticket row: popular
+ *              routes repeat many times, always with the same distance,
+ *              computed from made-up airport coordinates
+ * FORMAT is "basic" or "db1b", and OUTPUT is a file name, or standard
+ * output if it is omitted. Nodes are named with upper-case letters: the
+ * first 26^3 get three-letter airport codes. Weights other than db1b
+ * distances are integers from 1 to 1000. */
+public class GraphGenerator {
+
+    /** The kinds of graph that can be generated; see the class comment. */
+    public enum Shape {
+        RANDOM, GRID, POWERLAW, DB1B;
+
+        /** Return the shape named s, ignoring case. */
+        public static Shape parse(String s) {
+            return valueOf(s.toUpperCase());
+        }
+    }
+
+    private static final String DB1B_HEADER = "\"ItinID\",\"MktID\","
+        + "\"SeqNum\",\"Coupons\",\"Year\",\"Quarter\",\"Origin\","
+        + "\"OriginState\",\"Dest\",\"DestState\",\"Distance\"";
+
+    private final Shape shape;
+    private final int nodes;
+    private final long edges;
+    private final long seed;
+
+    // the edge just generated by next
+    private int orig;
+    private int dest;
+    private double weight;
+
+    // for GRID: the side of the grid, the current cell and which of its up
+    // to four edges comes next
+    private int side;
+    private int cell;
+    private int step;
+
+    /** Constructor: a generator of about nodes nodes and at most edges
+     * edges (or DB1B rows) of the given shape.
+     * Precondition: nodes >= 2, edges >= 0 */
+    public GraphGenerator(Shape shape, int nodes, long edges, long seed) {
+        if (nodes < 2) {
+            throw new IllegalArgumentException("nodes must be >= 2");
+        }
+        this.shape = shape;
+        this.nodes = nodes;
+        this.edges = edges;
+        this.seed = seed;
+    }
+
+    /** Write the graph to out in the given format, "basic" or "db1b", and
+     * return the number of edges written. out is flushed but not closed. */
+    public long write(Writer out, String format) throws IOException {
+        boolean db1b = format.equals("db1b");
+        if (!db1b && !format.equals("basic")) {
+            throw new IllegalArgumentException(
+                    "Unsupported format: " + format);
+        }
+        SplittableRandom rand = new SplittableRandom(seed);
+        // the DB1B fields that are not part of the graph come from their
+        // own stream, so both formats get the same edges
+        SplittableRandom extras = rand.split();
+        side = (int) Math.ceil(Math.sqrt(nodes));
+        cell = 0;
+        step = 0;
+
+        StringBuilder line = new StringBuilder();
+        if (db1b) {
+            out.write(DB1B_HEADER);
+            out.write('\n');
+        }
+        long count = 0;
+        while (count < edges && next(rand)) {
+            line.setLength(0);
+            if (db1b) {
+                appendDB1BRow(line, count, extras);
+            } else {
+                appendCode(line, orig).append(' ');
+                appendCode(line, dest).append(' ').append((long) weight);
+            }
+            line.append('\n');
+            out.append(line);
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+
+    /* Generate the next edge into orig, dest and weight. Return false if
+     * the shape has no more edges. */
+    private boolean next(SplittableRandom rand) {
+        switch (shape) {
+            case GRID:
+                return nextGridEdge(rand);
+            case POWERLAW:
+            case DB1B:
+                // a hub at one end, chosen by rank, and any node at the other
+                int hub = zipf(rand);
+                int spoke = rand.nextInt(nodes);
+                while (spoke == hub) {
+                    spoke = rand.nextInt(nodes);
+                }
+                boolean out = rand.nextBoolean();
+                orig = out ? hub : spoke;
+                dest = out ? spoke : hub;
+                break;
+            default:
+                orig = rand.nextInt(nodes);
+                dest = rand.nextInt(nodes - 1);
+                if (dest >= orig) {
+                    dest++;
+                }
+        }
+        weight = shape == Shape.DB1B ? distance(orig, dest)
+            : 1 + rand.nextInt(1000);
+        return true;
+    }
+
+    /* Generate the next grid edge: each cell in row-major order has edges
+     * to and from the cell to its right and the cell below it. */
+    private boolean nextGridEdge(SplittableRandom rand) {
+        while (cell < side * side) {
+            int here = cell;
+            int s = step++;
+            if (step == 4) {
+                step = 0;
+                cell++;
+            }
+            int other = -1;
+            if (s < 2 && here % side + 1 < side) {
+                other = here + 1;
+            } else if (s >= 2 && here / side + 1 < side) {
+                other = here + side;
+            }
+            if (other >= 0) {
+                orig = s % 2 == 0 ? here : other;
+                dest = s % 2 == 0 ? other : here;
+                weight = 1 + rand.nextInt(1000);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* Return a node in 0..nodes-1 chosen with probability about
+     * proportional to 1 / (rank + 1): the inverse of the continuous
+     * distribution with density 1/x on [1, nodes + 1). */
+    private int zipf(SplittableRandom rand) {
+        int k = (int) Math.pow(nodes + 1, rand.nextDouble()) - 1;
+        return Math.min(k, nodes - 1);
+    }
+
+    /* Append a DB1B row for the current edge, the i-th row written. */
+    private void appendDB1BRow(StringBuilder line, long i,
+            SplittableRandom rand) {
+        long itin = 20070000000L + i;
+        line.append(itin).append(',').append(itin).append(",1,")
+            .append(1 + rand.nextInt(4)).append(",2007,")
+            .append(1 + rand.nextInt(4)).append(",\"");
+        appendCode(line, orig).append("\",\"");
+        appendState(line, orig).append("\",\"");
+        appendCode(line, dest).append("\",\"");
+        appendState(line, dest).append("\",");
+        long hundredths = Math.round(weight * 100);
+        line.append(hundredths / 100).append('.');
+        long frac = hundredths % 100;
+        line.append(frac < 10 ? "0" : "").append(frac);
+    }
+
+    /* Return the whole number of miles between airports a and b, placed at
+     * made-up coordinates across a 3000 x 1500 mile map. */
+    private double distance(int a, int b) {
+        double dx = coordinate(a, 0) * 3000 - coordinate(b, 0) * 3000;
+        double dy = coordinate(a, 1) * 1500 - coordinate(b, 1) * 1500;
+        return Math.max(1, Math.rint(Math.sqrt(dx * dx + dy * dy)));
+    }
+
+    /* Return coordinate axis of node a, a number in [0, 1) fixed by the
+     * seed, so that it needs no table. */
+    private double coordinate(int a, int axis) {
+        long z = seed + 0x9E3779B97F4A7C15L * (2L * a + axis + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /** Append the name of node i: three upper-case letters for the first
+     * 26^3 nodes, then four, and so on. */
+    static StringBuilder appendCode(StringBuilder sb, int i) {
+        int len = 3;
+        long first = 0; // the first node with names of length len
+        long count = 26 * 26 * 26;
+        while (i - first >= count) {
+            first += count;
+            count *= 26;
+            len++;
+        }
+        long k = i - first;
+        int start = sb.length();
+        for (int j = 0; j < len; j++) {
+            sb.append((char) ('A' + k % 26));
+            k /= 26;
+        }
+        // the least significant letter was written first
+        for (int lo = start, hi = sb.length() - 1; lo < hi; lo++, hi--) {
+            char t = sb.charAt(lo);
+            sb.setCharAt(lo, sb.charAt(hi));
+            sb.setCharAt(hi, t);
+        }
+        return sb;
+    }
+
+    /* Append a two-letter state for node i. */
+    private static StringBuilder appendState(StringBuilder sb, int i) {
+        return sb.append((char) ('A' + i % 26))
+            .append((char) ('A' + i / 26 % 26));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5) {
+            System.err.println("Usage: GraphGenerator random|grid|powerlaw|"
+                    + "db1b basic|db1b NODES EDGES SEED [OUTPUT]");
+            System.exit(1);
+        }
+        GraphGenerator gen = new GraphGenerator(Shape.parse(args[0]),
+                Integer.parseInt(args[2]), Long.parseLong(args[3]),
+                Long.parseLong(args[4]));
+        long start = System.nanoTime();
+        long count;
+        try (Writer out = new BufferedWriter(args.length > 5 ?
+                    new FileWriter(args[5]) :
+                    new OutputStreamWriter(System.out), 1 << 16)) {
+            count = gen.write(out, args[1]);
+        }
+        System.err.printf("Wrote %d edges in %.1f s%n", count,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -1,6 +1,7 @@
 package graph;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.io.File;
 import java.io.FileNotFoundException;
 
@@ -18,4 +19,20 @@ public abstract class GraphParser {
      * the file. Precondition: open() has been successfully called. */
     public abstract Graph parse();
 
+    /** Parse an opened file and pass its edges to sink, in batches, instead
+     * of building a Graph. Precondition: open() has been successfully
+     * called. This default builds the Graph with parse() and then sends
+     * its edges; parsers that can stream edges as they read override it. */
+    public void parse(EdgeSink sink) {
+        Graph g = parse();
+        EdgeBuffer out = new EdgeBuffer(sink);
+        for (int i = 0; i < g.size(); i++) {
+            Node n = g.getNode(i);
+            for (Map.Entry<Node,Double> e : n.getNeighbors().entrySet()) {
+                out.add(n.getId(), e.getKey().getId(), e.getValue());
+            }
+        }
+        out.flush();
+    }
+
 }
@@ -0,0 +1,37 @@
+package graph;
+
+/** An EdgeSink that adds every edge it receives to a Graph. As with
+ * Graph.addEdge, a repeated edge overwrites the earlier weight.
+ * Sample usage:
+ *   GraphSink sink = new GraphSink();
+ *   parser.parse(sink);
+ *   Graph g = sink.getGraph();
+ *   */
+public class GraphSink implements EdgeSink {
+
+    private final Graph graph;
+
+    /** Constructor: a sink that builds a new Graph. */
+    public GraphSink() {
+        this(new Graph());
+    }
+
+    /** Constructor: a sink that adds edges to graph. */
+    public GraphSink(Graph graph) {
+        this.graph = graph;
+    }
+
+    /** Return the graph the edges are added to. */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    @Override
+    public void accept(String[] origs, String[] dests, double[] weights,
+            int count) {
+        for (int i = 0; i < count; i++) {
+            graph.addEdge(graph.getNode(origs[i]), graph.getNode(dests[i]),
+                    weights[i]);
+        }
+    }
+}
@@ -2,12 +2,29 @@ package graph;
 
 /** A hash table modeled after java.util.Map. It uses chaining for collision
  * resolution and grows its underlying storage by a factor of 2 when the load
- * factor exceeds 0.8. */
+ * factor exceeds 0.8.
+ *
+ * By default the whole table is rehashed at once when it grows. In
+ * incremental mode the old bucket array is kept after a resize and at most
+ * MIGRATION_STEP of its buckets are moved into the new array on each get,
+ * put or remove, so no single operation pays for the whole rehash. Until the
+ * migration finishes, lookups check both arrays. OpenHashTable has the same
+ * mode, which Heap uses. */
 public class HashTable<K,V> {
 
+    /** number of old buckets migrated per operation in incremental mode */
+    public static final int MIGRATION_STEP = 4;
+
     protected Pair[] buckets; // array of list nodes that store K,V pairs
     protected int size; // how many items currently in the map
 
+    private final boolean incremental; // true if resizes are incremental
+    // buckets from before the last resize that are still being migrated, or
+    // null if no migration is in progress. oldBuckets[0..migrated-1] have
+    // already been moved into buckets.
+    private Pair[] oldBuckets;
+    private int migrated;
+
 
     /** class Pair stores a key-value pair and a next pointer for chaining
      * multiple values together in the same bucket, linked-list style*/
@@ -43,7 +60,14 @@ public class HashTable<K,V> {
 
     /** constructor: initialize the given capacity */
     public HashTable(int capacity) {
+        this(capacity, false);
+    }
+
+    /** constructor: initialize the given capacity. If incremental is true,
+     * the table is rehashed a few buckets at a time when it grows. */
+    public HashTable(int capacity, boolean incremental) {
         buckets = createBucketArray(capacity);
+        this.incremental = incremental;
     }
 
     /** Return the size of the map (the number of key-value mappings in the
@@ -58,31 +82,18 @@ public class HashTable<K,V> {
         return buckets.length;
     }
 
+    /** Return true if an incremental resize is still in progress. */
+    public boolean isResizing() {
+        return oldBuckets != null;
+    }
+
     /** Return the value to which the specified key is mapped, or null if this
      * map contains no mapping for the key.
      * Runtime: average case O(1); worst case O(size) */
     public V get(K key) {
-        //Hash V value into a key
-        //Hash to index of bucket in HashTable using
-        // mod of key hash and table size
-        int keyHash = key.hashCode();
-        int keyIdx = Math.absExact(keyHash % getCapacity());
-        Pair node = buckets[keyIdx];
-        boolean containsNode = node != null;
-
-        // Search through each node in bucket
-        // to determine if any has matching key.
-        //Return value of matching key (which is index of value in Heap) if found
-        //Otherwise return null (value is not in HashTable or Heap)
-        if (containsNode) {
-            while (node != null) {
-                if (node.key.equals(key)) {
-                    return node.value;
-                }
-                node = node.next;
-            }
-        }
-        return null;
+        migrateSome();
+        Pair node = findPair(key);
+        return node == null ? null : node.value;
     }
 
     /** Associate the specified value with the specified key in this map. If
@@ -93,35 +104,18 @@ public class HashTable<K,V> {
      * Precondition: val is not null.
      * Runtime: average case O(1); worst case O(size + a.length)*/
     public V put(K key, V val) {
-        //Hash V value into a key
-        //Hash to index of bucket in HashTable using
-        // mod of key hash and table size
-        int keyHash = key.hashCode();
-        int keyIdx = Math.absExact(keyHash % getCapacity());
-        Pair putNode = new Pair(key, val);
-        boolean containsNode = buckets[keyIdx] != null;
-
-        // When nodes exist, search through each node in bucket to determine if any has matching key.
-        //If  matching key is found, update existing node's value with val
-        //Else, chain the (key , val) pair to the last node in the bucket
-        if (containsNode) {
-            Pair node = buckets[keyIdx];
-            while (node != null) {
-                if (node.key.equals(key)) {
-                    V oldValue = node.value;
-                    node.value = val;
-                    return oldValue;
-                } else if (node.next == null) {
-                    node.next = putNode;
-                    size++;
-                    growIfNeeded();
-                    return null;
-                }
-                node = node.next;
-            }
+        migrateSome();
+        //If a matching key is found, update existing node's value with val
+        Pair node = findPair(key);
+        if (node != null) {
+            V oldValue = node.value;
+            node.value = val;
+            return oldValue;
         }
-        // If no nodes exist in bucket, add key, value as first node.
-        buckets[keyIdx] = putNode;
+        //Otherwise chain the (key, val) pair to the front of its bucket
+        //in the current bucket array
+        int keyIdx = indexFor(key, getCapacity());
+        buckets[keyIdx] = new Pair(key, val, buckets[keyIdx]);
         size++;
         growIfNeeded();
         return null;
@@ -138,66 +132,168 @@ public class HashTable<K,V> {
      *  mapping for key.
      *  Runtime: average case O(1); worst case O(size)*/
     public V remove(K key) {
-        //Check if key (value) in the HashTable
-        if (containsKey(key)){
-            //Get index of key (value)
-            int keyHash = key.hashCode();
-            int keyIdx = Math.absExact(keyHash % getCapacity());
-            Pair node = buckets[keyIdx];
-
-            //Search through each node in bucket to find matching key.
-            //Set the node to null (i.e., remove it)
-            //Update node's next pointer if next pointer not null
-            //Reduce size of table
-            if (node.key.equals(key)){
-                V oldValue = node.value;
-                buckets[keyIdx] = node.next != null ?
-                        node.next : null;
+        migrateSome();
+        //A key in a not-yet-migrated old bucket is removed from there
+        if (oldBuckets != null) {
+            int oldIdx = indexFor(key, oldBuckets.length);
+            if (oldIdx >= migrated) {
+                V oldValue = removeFrom(oldBuckets, oldIdx, key);
+                if (oldValue != null) {
+                    return oldValue;
+                }
+            }
+        }
+        return removeFrom(buckets, indexFor(key, getCapacity()), key);
+    }
+
+    /* Unlink the pair with the given key from table[keyIdx] and return its
+     * value, or return null if there is no such pair. */
+    private V removeFrom(Pair[] table, int keyIdx, K key) {
+        Pair node = table[keyIdx];
+        Pair prev = null;
+
+        //Search through each node in bucket to find matching key.
+        //Unlink it from its predecessor (or the bucket head), and
+        //reduce size of table
+        while (node != null) {
+            if (node.key.equals(key)) {
+                if (prev == null) {
+                    table[keyIdx] = node.next;
+                } else {
+                    prev.next = node.next;
+                }
                 size--;
-                return oldValue;
-            }else {
-                while (node.next != null) {
-                    if (node.next.key.equals(key)) {
-                        V oldValue = node.next.value;
-                        node.next = node.next.next != null ?
-                                node.next.next : null;
-                        size--;
-                        return oldValue;
-                    }
-                    node = node.next;
+                return node.value;
+            }
+            prev = node;
+            node = node.next;
+        }
+        return null;
+    }
+
+    /* Return the pair with the given key, or null if there is none. While an
+     * incremental resize is in progress, the key may be in either array. */
+    private Pair findPair(K key) {
+        if (oldBuckets != null) {
+            int oldIdx = indexFor(key, oldBuckets.length);
+            Pair node = oldIdx >= migrated ?
+                    findInChain(oldBuckets[oldIdx], key) : null;
+            if (node != null) {
+                return node;
+            }
+        }
+        return findInChain(buckets[indexFor(key, getCapacity())], key);
+    }
+
+    /* Return the pair with the given key in the chain starting at node, or
+     * null if there is none. */
+    private Pair findInChain(Pair node, K key) {
+        int chain = 0; // entries examined, for Metrics
+        while (node != null) {
+            chain++;
+            if (node.key.equals(key)) {
+                if (Metrics.ENABLED) {
+                    Metrics.recordLookup(chain);
                 }
+                return node;
             }
+            node = node.next;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordLookup(chain);
         }
         return null;
     }
 
+    /* Hash to index of bucket in a table of the given capacity using
+     * mod of key hash and table size */
+    private int indexFor(K key, int capacity) {
+        return Math.absExact(key.hashCode() % capacity);
+    }
+
     // suggested helper method:
     /* check the load factor; if it exceeds 0.8, double the capacity 
-     * and rehash values from the old array to the new array */
+     * and rehash values from the old array to the new array, recording a
+     * ResizeEvent for Flight Recorder. A resize that comes due while a
+     * migration is in progress waits for the migration to finish, which
+     * takes at most capacity/8 more operations; chaining tolerates the
+     * higher load until then. */
     private void growIfNeeded() {
         double loadFactor = (double) getSize() / getCapacity();
         boolean exceedMaxLoadFactor = loadFactor > 0.8;
 
-        //Temporarily store current buckets key/value pairs
-        //Double capacity of buckets
-        if (exceedMaxLoadFactor){
-            Pair[] oldBuckets = buckets;
-            int newCapacity = getCapacity() * 2;
-            buckets = createBucketArray(newCapacity);
-            size = 0;
-
-            //Rehash all entries from old buckets back into
-            //New, larger buckets HashTable
-            for (Pair bucket : oldBuckets) {
-                Pair node = bucket;
-                while (node != null) {
-                    put(node.key, node.value);
-                    node = node.next;
-                }
+        //Double capacity of buckets, unless the last resize is still
+        //being migrated
+        if (exceedMaxLoadFactor && oldBuckets == null){
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
+            ResizeEvent event = new ResizeEvent();
+            event.begin();
+            long moved = 0;
+            Pair[] old = buckets;
+            buckets = createBucketArray(getCapacity() * 2);
+
+            //Either keep the old buckets around to be migrated a few
+            //at a time, or relink all of their pairs into the new,
+            //larger buckets right away
+            oldBuckets = old;
+            migrated = 0;
+            if (!incremental) {
+                moved = finishMigration();
+            }
+            if (Metrics.ENABLED) {
+                Metrics.recordResize(System.nanoTime() - start);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.collection = getClass();
+                event.oldCapacity = old.length;
+                event.newCapacity = buckets.length;
+                event.entriesMoved = moved;
+                event.commit();
             }
         }
     }
 
+    /* In incremental mode, move up to MIGRATION_STEP old buckets into the
+     * current bucket array. */
+    private void migrateSome() {
+        if (oldBuckets != null) {
+            migrate(Math.min(migrated + MIGRATION_STEP, oldBuckets.length));
+        }
+    }
+
+    /* Move all remaining old buckets into the current bucket array, and
+     * return the number of pairs moved. */
+    private int finishMigration() {
+        if (oldBuckets != null) {
+            return migrate(oldBuckets.length);
+        }
+        return 0;
+    }
+
+    /* Move old buckets up to (but not including) end into the current
+     * bucket array by relinking their pairs, without allocating, and return
+     * the number of pairs moved. */
+    private int migrate(int end) {
+        int moved = 0;
+        for (; migrated < end; migrated++) {
+            Pair node = oldBuckets[migrated];
+            while (node != null) {
+                moved++;
+                Pair next = node.next;
+                int keyIdx = indexFor(node.key, getCapacity());
+                node.next = buckets[keyIdx];
+                buckets[keyIdx] = node;
+                node = next;
+            }
+            oldBuckets[migrated] = null;
+        }
+        if (migrated == oldBuckets.length) {
+            oldBuckets = null;
+        }
+        return moved;
+    }
+
     /* useful method for debugging - prints a representation of the current
      * state of the hash table by traversing each bucket and printing the
      * key-value pairs in linked-list representation */
@@ -214,6 +310,10 @@ public class HashTable<K,V> {
             }
             System.out.println("|");
         }
+        if (oldBuckets != null) {
+            System.out.println("Migrating; old buckets " + migrated + "-" +
+                    (oldBuckets.length - 1) + " not yet moved");
+        }
     }
 
     /*  Create and return a bucket array with the specified size, initializing
@@ -42,12 +42,13 @@ public final class Heap<V, P extends Comparable<P>> {
      *        the index of v in c. Thus: map.get(c[i]) = i.
      */
     protected AList<Entry> c;
-    protected HashTable<V, Integer> map;
+    protected OpenHashTable<V, Integer> map;
 
     /** Constructor: an empty heap with capacity 10. */
     public Heap() {
         c = new AList<Entry>(10);
-        map = new HashTable<V, Integer>();
+        // incremental, so no add pays for rehashing the whole map
+        map = new OpenHashTable<V, Integer>(16, true);
     }
 
     /** An Entry contains a value and a priority. */
@@ -102,6 +103,9 @@ public final class Heap<V, P extends Comparable<P>> {
         //Keep hash table in sync with changes
         map.put(c.get(h).value,h);
         map.put(c.get(k).value,k);
+        if (Metrics.ENABLED) {
+            Metrics.heapSwaps.increment();
+        }
     }
 
     /** Bubble c[k] up in heap to its right place.
@@ -230,6 +234,9 @@ public final class Heap<V, P extends Comparable<P>> {
         if (!contains(v)){
             throw new IllegalArgumentException();
         }
+        if (Metrics.ENABLED) {
+            Metrics.frontierChangePriorityCalls.increment();
+        }
         int eIdx = map.get(v);
         Entry e = c.get(eIdx);
         e.priority = p;
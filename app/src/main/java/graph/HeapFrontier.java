@@ -0,0 +1,38 @@
+package graph;
+
+/** A Frontier backed by the generic Heap<Integer,Double>. Every key and
+ * priority is boxed; this is kept as a baseline to compare against. */
+public class HeapFrontier implements Frontier {
+
+    private Heap<Integer,Double> heap = new Heap<>();
+
+    @Override
+    public int size() {
+        return heap.size();
+    }
+
+    @Override
+    public boolean contains(int v) {
+        return heap.contains(v);
+    }
+
+    @Override
+    public void add(int v, double p) {
+        heap.add(v, p);
+    }
+
+    @Override
+    public int poll() {
+        return heap.poll();
+    }
+
+    @Override
+    public void changePriority(int v, double p) {
+        heap.changePriority(v, p);
+    }
+
+    @Override
+    public void clear() {
+        heap = new Heap<>();
+    }
+}
@@ -0,0 +1,201 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** An indexed min-heap of distinct non-negative int values with double
+ * priorities. It plays the same role as Heap<Integer,Double>, but stores
+ * priorities in a double[] indexed by value and each value's heap position in
+ * an int[], so add, poll and changePriority do not allocate unless the backing
+ * arrays need to grow. This is the default Frontier for Dijkstra's
+ * algorithm. */
+public final class IntHeap implements Frontier {
+
+    /* Class Invariants:
+     *   1. heap[0..size-1] is a complete binary tree: heap[2i+1] and heap[2i+2]
+     *      are the children of heap[i].
+     *   2. prio[heap[i]] >= prio[heap[(i-1)/2]] for every i > 0.
+     *   3. pos[v] == i iff heap[i] == v for some i < size; otherwise
+     *      pos[v] == -1 (or v >= pos.length). */
+    private int[] heap; // values in heap order
+    private int[] pos; // pos[v] is the index of v in heap, or -1
+    private double[] prio; // prio[v] is v's priority while v is in the heap
+    private int size;
+
+    /** Constructor: an empty heap with room for values 0..9. */
+    public IntHeap() {
+        this(10);
+    }
+
+    /** Constructor: an empty heap with room for values 0..capacity-1. Larger
+     * values may still be added; the arrays grow by doubling. */
+    public IntHeap(int capacity) {
+        capacity = Math.max(capacity, 1);
+        heap = new int[capacity];
+        pos = new int[capacity];
+        prio = new double[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    /** Return the number of values in this heap. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Return true if v is in the heap, false otherwise. Runtime: O(1) */
+    @Override
+    public boolean contains(int v) {
+        return v < pos.length && pos[v] >= 0;
+    }
+
+    /** Return the priority of v.
+     * @throws IllegalArgumentException if v is not in the heap. */
+    public double priority(int v) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        return prio[v];
+    }
+
+    /** Add v with priority p to the heap. Runtime: O(log size)
+     * @throws IllegalArgumentException if v is already in the heap or is
+     * negative. */
+    @Override
+    public void add(int v, double p) {
+        if (v < 0 || contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        growIfNeeded(v);
+        prio[v] = p;
+        bubbleUp(size++, v);
+    }
+
+    /** Return the value with lowest priority without removing it.
+     * @throws NoSuchElementException if the heap is empty. */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    /** Remove and return the value with lowest priority.
+     * Runtime: O(log size)
+     * @throws NoSuchElementException if the heap is empty. */
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int first = heap[0];
+        pos[first] = -1;
+        size--;
+        if (size > 0) {
+            bubbleDown(0, heap[size]);
+        }
+        return first;
+    }
+
+    /** Change the priority of v to p. Runtime: O(log size)
+     * @throws IllegalArgumentException if v is not in the heap. */
+    @Override
+    public void changePriority(int v, double p) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        if (Metrics.ENABLED) {
+            Metrics.frontierChangePriorityCalls.increment();
+        }
+        double old = prio[v];
+        prio[v] = p;
+        if (p < old) {
+            bubbleUp(pos[v], v);
+        } else if (p > old) {
+            bubbleDown(pos[v], v);
+        }
+    }
+
+    /** Remove all values from the heap. Runtime: O(size) */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /* Move v up from the hole at index k until its parent's priority is no
+     * larger than v's, then place it there. */
+    private void bubbleUp(int k, int v) {
+        double p = prio[v];
+        while (k > 0) {
+            int parentIdx = (k - 1) / 2;
+            int parent = heap[parentIdx];
+            if (p >= prio[parent]) {
+                break;
+            }
+            heap[k] = parent;
+            pos[parent] = k;
+            k = parentIdx;
+        }
+        heap[k] = v;
+        pos[v] = k;
+    }
+
+    /* Move v down from the hole at index k until no child has a smaller
+     * priority, then place it there. On tied children, the right child is
+     * chosen, as in Heap. */
+    private void bubbleDown(int k, int v) {
+        double p = prio[v];
+        int half = size / 2; // nodes at index >= half have no children
+        while (k < half) {
+            int child = 2 * k + 1;
+            int right = child + 1;
+            if (right < size && prio[heap[child]] >= prio[heap[right]]) {
+                child = right;
+            }
+            int c = heap[child];
+            if (p <= prio[c]) {
+                break;
+            }
+            heap[k] = c;
+            pos[c] = k;
+            k = child;
+        }
+        heap[k] = v;
+        pos[v] = k;
+    }
+
+    /* Grow the arrays so that value v fits, doubling capacity as needed. */
+    private void growIfNeeded(int v) {
+        if (v >= pos.length) {
+            grow(v);
+        }
+    }
+
+    /* Double the capacity of the arrays until value v fits, recording a
+     * ResizeEvent for Flight Recorder. This is kept out of growIfNeeded so
+     * that add, which Dijkstra's inner loop inlines, stays small. */
+    private void grow(int v) {
+        ResizeEvent event = new ResizeEvent();
+        event.begin();
+        int newCap = pos.length;
+        while (newCap <= v) {
+            newCap *= 2;
+        }
+        int oldCap = pos.length;
+        heap = Arrays.copyOf(heap, newCap);
+        prio = Arrays.copyOf(prio, newCap);
+        pos = Arrays.copyOf(pos, newCap);
+        Arrays.fill(pos, oldCap, newCap, -1);
+        event.end();
+        if (event.shouldCommit()) {
+            event.collection = IntHeap.class;
+            event.oldCapacity = oldCap;
+            event.newCapacity = newCap;
+            event.entriesMoved = oldCap;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/** Landmark distance tables for ALT (A*, Landmarks, Triangle inequality)
+ * queries over a CompactGraph. For each landmark L, from[i][v] is the
+ * shortest distance from L to v and to[i][v] is the shortest distance from v
+ * to L. By the triangle inequality, for any nodes v and t,
+ *   d(v,t) >= d(L,t) - d(L,v)  and  d(v,t) >= d(v,L) - d(t,L),
+ * which gives AltShortestPaths a lower bound on the remaining distance.
+ *
+ * Tables can be saved to a file next to the graph and loaded again, so the
+ * preprocessing only has to be done once per graph. */
+public class Landmarks {
+
+    private static final int MAGIC = 0x414C5431; // "ALT1"
+
+    private final int[] landmarks; // node ids of the landmarks
+    private final double[][] from; // from[i][v] = d(landmarks[i], v)
+    private final double[][] to; // to[i][v] = d(v, landmarks[i])
+
+    private Landmarks(int[] landmarks, double[][] from, double[][] to) {
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+    }
+
+    /** Select k landmarks in g by farthest-point selection and compute
+     * their distance tables with Dijkstra's algorithm. The first landmark is
+     * the node farthest from start; each later one is the node whose nearest
+     * landmark is farthest away, measured over both directions. Nodes that no
+     * landmark reaches are preferred, so every component gets a landmark.
+     * Precondition: 0 <= start < g.size(), 1 <= k <= g.size() */
+    public static Landmarks select(CompactGraph g, int k, int start) {
+        int n = g.size();
+        CompactShortestPaths fwd = new CompactShortestPaths(g);
+        CompactShortestPaths bwd = new CompactShortestPaths(g.reverse());
+        int[] chosen = new int[k];
+        double[][] from = new double[k][];
+        double[][] to = new double[k][];
+
+        // nearest[v] is the distance between v and its nearest landmark
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        fwd.compute(start);
+        int next = farthestReached(distances(fwd, n), start);
+
+        for (int i = 0; i < k; i++) {
+            chosen[i] = next;
+            fwd.compute(next);
+            bwd.compute(next);
+            from[i] = distances(fwd, n);
+            to[i] = distances(bwd, n);
+            for (int v = 0; v < n; v++) {
+                nearest[v] = Math.min(nearest[v],
+                        Math.min(from[i][v], to[i][v]));
+            }
+            next = farthest(nearest, chosen, i + 1);
+        }
+        return new Landmarks(chosen, from, to);
+    }
+
+    /** Return the number of landmarks. */
+    public int size() {
+        return landmarks.length;
+    }
+
+    /** Return the node id of landmark i. */
+    public int landmark(int i) {
+        return landmarks[i];
+    }
+
+    /** Return a lower bound on the shortest distance from v to t. */
+    public double lowerBound(int v, int t) {
+        double best = 0.0;
+        for (int i = 0; i < landmarks.length; i++) {
+            double[] f = from[i];
+            double[] b = to[i];
+            // terms with an infinite distance give no usable bound
+            if (f[v] != Double.POSITIVE_INFINITY
+                    && f[t] != Double.POSITIVE_INFINITY) {
+                best = Math.max(best, f[t] - f[v]);
+            }
+            if (b[v] != Double.POSITIVE_INFINITY
+                    && b[t] != Double.POSITIVE_INFINITY) {
+                best = Math.max(best, b[v] - b[t]);
+            }
+        }
+        return best;
+    }
+
+    /** Write the landmark tables to file. */
+    public void save(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            int n = from.length == 0 ? 0 : from[0].length;
+            out.writeInt(MAGIC);
+            out.writeInt(n);
+            out.writeInt(landmarks.length);
+            for (int i = 0; i < landmarks.length; i++) {
+                out.writeInt(landmarks[i]);
+                for (int v = 0; v < n; v++) {
+                    out.writeDouble(from[i][v]);
+                }
+                for (int v = 0; v < n; v++) {
+                    out.writeDouble(to[i][v]);
+                }
+            }
+        }
+    }
+
+    /** Read landmark tables written by save for the graph g.
+     * @throws IOException if the file cannot be read, is not a landmark
+     * file, or was written for a graph with a different number of nodes. */
+    public static Landmarks load(File file, CompactGraph g)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a landmark file: " + file);
+            }
+            int n = in.readInt();
+            if (n != g.size()) {
+                throw new IOException("Landmarks are for a graph with " + n
+                        + " nodes, not " + g.size());
+            }
+            int k = in.readInt();
+            int[] landmarks = new int[k];
+            double[][] from = new double[k][n];
+            double[][] to = new double[k][n];
+            for (int i = 0; i < k; i++) {
+                landmarks[i] = in.readInt();
+                for (int v = 0; v < n; v++) {
+                    from[i][v] = in.readDouble();
+                }
+                for (int v = 0; v < n; v++) {
+                    to[i][v] = in.readDouble();
+                }
+            }
+            return new Landmarks(landmarks, from, to);
+        }
+    }
+
+    /* Return the distances computed by sp as an array indexed by node id. */
+    private static double[] distances(CompactShortestPaths sp, int n) {
+        double[] d = new double[n];
+        for (int v = 0; v < n; v++) {
+            d[v] = sp.shortestPathLength(v);
+        }
+        return d;
+    }
+
+    /* Return the node with the largest distance in d, skipping the first
+     * count nodes of exclude. An infinite distance beats any finite one, so
+     * that unreached nodes are picked first. */
+    private static int farthest(double[] d, int[] exclude, int count) {
+        int best = -1;
+        for (int v = 0; v < d.length; v++) {
+            if (isExcluded(v, exclude, count)) {
+                continue;
+            }
+            if (best == -1 || d[v] > d[best]) {
+                best = v;
+            }
+        }
+        return best == -1 ? 0 : best;
+    }
+
+    /* Return the node with the largest finite distance in d, or fallback
+     * if no node has a positive finite distance. */
+    private static int farthestReached(double[] d, int fallback) {
+        int best = fallback;
+        for (int v = 0; v < d.length; v++) {
+            if (d[v] != Double.POSITIVE_INFINITY && d[v] > d[best]) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /* Return true if v is among the first count entries of exclude. */
+    private static boolean isExcluded(int v, int[] exclude, int count) {
+        for (int i = 0; i < count; i++) {
+            if (exclude[i] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
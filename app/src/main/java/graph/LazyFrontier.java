@@ -0,0 +1,178 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** A Frontier without a decrease-key operation. changePriority simply pushes
+ * another (priority, key) entry onto an array-based binary heap, and poll
+ * discards entries that no longer match their key's current priority. The
+ * heap can hold more entries than there are keys, but each operation is a
+ * plain push or pop with no position bookkeeping. */
+public final class LazyFrontier implements Frontier {
+
+    private double[] entryPrio; // priorities of the heap entries
+    private int[] entryKey; // keys of the heap entries
+    private int entries; // number of heap entries, including stale ones
+    private double[] current; // current[v] is v's priority if in[v]
+    private boolean[] in; // in[v] is true iff v is in the frontier
+    private int size; // number of keys in the frontier
+
+    /** Constructor: an empty frontier with room for keys 0..capacity-1.
+     * Larger keys may still be added; the arrays grow by doubling. */
+    public LazyFrontier(int capacity) {
+        capacity = Math.max(capacity, 1);
+        entryPrio = new double[capacity];
+        entryKey = new int[capacity];
+        current = new double[capacity];
+        in = new boolean[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int v) {
+        return v < in.length && in[v];
+    }
+
+    @Override
+    public void add(int v, double p) {
+        if (v < 0 || contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        if (v >= in.length) {
+            growKeys(v);
+        }
+        in[v] = true;
+        current[v] = p;
+        size++;
+        push(v, p);
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        while (true) {
+            int v = entryKey[0];
+            double p = entryPrio[0];
+            pop();
+            if (in[v] && p == current[v]) {
+                in[v] = false;
+                size--;
+                return v;
+            }
+        }
+    }
+
+    @Override
+    public void changePriority(int v, double p) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        if (Metrics.ENABLED) {
+            Metrics.frontierChangePriorityCalls.increment();
+        }
+        if (p != current[v]) {
+            current[v] = p;
+            push(v, p);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < entries; i++) {
+            in[entryKey[i]] = false;
+        }
+        entries = 0;
+        size = 0;
+    }
+
+    /* Add an entry to the heap. */
+    private void push(int v, double p) {
+        if (entries == entryKey.length) {
+            growEntries();
+        }
+        int k = entries++;
+        while (k > 0) {
+            int parent = (k - 1) / 2;
+            if (p >= entryPrio[parent]) {
+                break;
+            }
+            entryKey[k] = entryKey[parent];
+            entryPrio[k] = entryPrio[parent];
+            k = parent;
+        }
+        entryKey[k] = v;
+        entryPrio[k] = p;
+    }
+
+    /* Remove the entry at the top of the heap. */
+    private void pop() {
+        entries--;
+        int v = entryKey[entries];
+        double p = entryPrio[entries];
+        int k = 0;
+        int half = entries / 2;
+        while (k < half) {
+            int c = 2 * k + 1;
+            if (c + 1 < entries && entryPrio[c + 1] <= entryPrio[c]) {
+                c++;
+            }
+            if (p <= entryPrio[c]) {
+                break;
+            }
+            entryKey[k] = entryKey[c];
+            entryPrio[k] = entryPrio[c];
+            k = c;
+        }
+        entryKey[k] = v;
+        entryPrio[k] = p;
+    }
+
+    /* Grow the per-key arrays so that key v fits, doubling as needed, and
+     * record a ResizeEvent for Flight Recorder. */
+    private void growKeys(int v) {
+        ResizeEvent event = new ResizeEvent();
+        event.begin();
+        int oldCap = in.length;
+        int newCap = in.length;
+        while (newCap <= v) {
+            newCap *= 2;
+        }
+        current = Arrays.copyOf(current, newCap);
+        in = Arrays.copyOf(in, newCap);
+        event.end();
+        if (event.shouldCommit()) {
+            event.collection = LazyFrontier.class;
+            event.array = "keys";
+            event.oldCapacity = oldCap;
+            event.newCapacity = newCap;
+            event.entriesMoved = oldCap;
+            event.commit();
+        }
+    }
+
+    /* Double the capacity of the heap entry arrays, recording a
+     * ResizeEvent for Flight Recorder. This is kept out of push so that
+     * push stays small enough to inline. */
+    private void growEntries() {
+        ResizeEvent event = new ResizeEvent();
+        event.begin();
+        int oldCap = entryKey.length;
+        entryKey = Arrays.copyOf(entryKey, oldCap * 2);
+        entryPrio = Arrays.copyOf(entryPrio, oldCap * 2);
+        event.end();
+        if (event.shouldCommit()) {
+            event.collection = LazyFrontier.class;
+            event.array = "entries";
+            event.oldCapacity = oldCap;
+            event.newCapacity = entryKey.length;
+            event.entriesMoved = entries;
+            event.commit();
+        }
+    }
+}
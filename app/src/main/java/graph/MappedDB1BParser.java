@@ -0,0 +1,477 @@
+package graph;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/** A DB1B CSV parser that memory-maps the file and scans its bytes
+ * directly, for files with tens of millions of rows. It reads the same
+ * files as DB1BParser and builds the same Graph, with nodes created in the
+ * same order, but allocates nothing per row: the origin, dest and distance
+ * column indices are resolved once from the header, airport codes are
+ * interned straight to ids by AirportCodes, and distances are parsed from
+ * the bytes without building Strings.
+ *
+ * The rows after the header are split into chunks of about equal size,
+ * aligned to line boundaries, and the chunks can be parsed on several
+ * threads at once. Each chunk collapses its rows into a RouteTable of
+ * unique routes; the tables are then merged in file order into an
+ * AggregatingSink and the Graph is built from the result, so Graph.addEdge
+ * is called once per route rather than once per row. Duplicate routes are
+ * resolved last-write-wins, as Node.addNeighbor does, or with another
+ * DuplicatePolicy.
+ *
+ * Like DB1BParser, fields are separated by commas and surrounding quotes are
+ * stripped; quoted fields may not contain commas. Lines may end with \n or
+ * \r\n, and blank lines are skipped. */
+public class MappedDB1BParser extends GraphParser {
+
+    // chunks are at most this many bytes, so that each fits in one mapping
+    private static final int MAX_CHUNK = 1 << 30;
+
+    private final int threads;
+    private final DuplicatePolicy policy;
+    private final int maxChunk;
+    private File file;
+
+    // column indices of the fields we need, and the last of them
+    private int originCol;
+    private int destCol;
+    private int distanceCol;
+    private int lastCol;
+
+    /** Constructor: create a parser that runs on the calling thread. */
+    public MappedDB1BParser() {
+        this(1);
+    }
+
+    /** Constructor: create a parser that parses chunks of the file on
+     * threads threads, keeping the last weight of duplicate routes.
+     * Precondition: threads >= 1 */
+    public MappedDB1BParser(int threads) {
+        this(threads, DuplicatePolicy.LAST);
+    }
+
+    /** Constructor: create a parser that parses chunks of the file on
+     * threads threads and combines duplicate routes with policy.
+     * Precondition: threads >= 1 */
+    public MappedDB1BParser(int threads, DuplicatePolicy policy) {
+        this(threads, policy, MAX_CHUNK);
+    }
+
+    /** Constructor: as above, with chunks of at most maxChunk bytes. No
+     * line may be longer than maxChunk / 2 bytes. */
+    MappedDB1BParser(int threads, DuplicatePolicy policy, int maxChunk) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be >= 1");
+        }
+        this.threads = threads;
+        this.policy = policy;
+        this.maxChunk = maxChunk;
+    }
+
+    /** Open the given file and prepare to parse it. */
+    @Override
+    public void open(File f) throws FileNotFoundException {
+        if (!f.isFile()) {
+            throw new FileNotFoundException(f.getPath());
+        }
+        file = f;
+    }
+
+    /** Parse an opened file and return a Graph representing the data in the
+     * file. Precondition: open() has been successfully called.
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the header lacks a needed column,
+     * a line has too few fields, or a line is longer than maxChunk / 2 */
+    @Override
+    public Graph parse() {
+        return parseRoutes().toGraph();
+    }
+
+    /** Parse an opened file and pass its unique routes to sink, in batches,
+     * in order of first appearance. Unlike DB1BParser, repeated routes are
+     * combined by this parser's DuplicatePolicy before they reach sink.
+     * Precondition: open() has been successfully called.
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException as for parse() */
+    @Override
+    public void parse(EdgeSink sink) {
+        parseRoutes().sendTo(sink);
+    }
+
+    /* Parse the file into chunks in parallel and merge their routes,
+     * recording a ParseEvent for Flight Recorder. */
+    private AggregatingSink parseRoutes() {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        List<Chunk> chunks;
+        long size;
+        try (FileChannel ch = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ)) {
+            size = ch.size();
+            if (size == 0) {
+                return new AggregatingSink(policy);
+            }
+            long start = readHeader(ch, size);
+            chunks = split(ch, start, size);
+            if (threads == 1 || chunks.size() == 1) {
+                for (Chunk c : chunks) {
+                    c.call();
+                }
+            } else {
+                runAll(chunks);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        AggregatingSink routes = merge(chunks);
+        event.end();
+        if (event.shouldCommit()) {
+            long rows = 0;
+            for (Chunk c : chunks) {
+                rows += c.rows;
+            }
+            event.parser = "MappedDB1BParser";
+            event.file = file.getPath();
+            event.rows = rows;
+            event.bytes = size;
+            event.commit();
+        }
+        return routes;
+    }
+
+    /* Parse the header line and return the offset of the line after it. */
+    private long readHeader(FileChannel ch, long size) throws IOException {
+        int len = (int) Math.min(maxChunk, size);
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, len);
+        int end = lineEnd(buf, 0, len);
+        if (end == len && len < size) {
+            throw new IllegalArgumentException("Header line is too long");
+        }
+        int next = end + 1;
+        if (end > 0 && buf.get(end - 1) == '\r') {
+            end--;
+        }
+        parseHeaders(buf, 0, end);
+        return next;
+    }
+
+    /* Split the bytes from start to size into chunks that begin and end at
+     * line boundaries: about one per thread, but none larger than half of
+     * maxChunk before alignment. */
+    private List<Chunk> split(FileChannel ch, long start, long size)
+            throws IOException {
+        long target = Math.max(1, (size - start + threads - 1) / threads);
+        target = Math.min(target, maxChunk / 2);
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (start < size) {
+            long end = Math.min(size, start + target);
+            // move end forward to just past the next '\n'
+            while (end < size) {
+                probe.clear();
+                int n = ch.read(probe, end - 1);
+                int i = lineEnd(probe, 0, n);
+                if (i < n) {
+                    end += i;
+                    break;
+                }
+                end += n;
+            }
+            if (end - start > maxChunk) {
+                throw new IllegalArgumentException("Line longer than "
+                        + maxChunk / 2 + " bytes after offset " + start);
+            }
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /* Parse every chunk on a pool of threads threads. */
+    private void runAll(List<Chunk> chunks) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (Future<Chunk> f : pool.invokeAll(chunks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /* Merge the chunks' routes in file order. Global ids are given to
+     * airport codes in order of first appearance, so nodes built from the
+     * result are created in the same order as DB1BParser creates them: a
+     * code first appears in the first occurrence of some route, and each
+     * chunk lists its routes in order of first occurrence. */
+    private AggregatingSink merge(List<Chunk> chunks) {
+        AggregatingSink all = new AggregatingSink(policy);
+        for (Chunk c : chunks) {
+            // toGlobal[local id] is 1 + the global id, or 0 if not yet seen
+            int[] toGlobal = new int[c.codes.size()];
+            for (int i = 0; i < c.routes.size(); i++) {
+                int orig = globalId(c, c.routes.orig(i), toGlobal, all);
+                int dest = globalId(c, c.routes.dest(i), toGlobal, all);
+                all.add(orig, dest, c.routes.weight(i), c.routes.count(i));
+            }
+        }
+        return all;
+    }
+
+    /* Return the global id in all of chunk c's local code id. */
+    private static int globalId(Chunk c, int local, int[] toGlobal,
+            AggregatingSink all) {
+        if (toGlobal[local] == 0) {
+            toGlobal[local] = all.idOf(c.codes.code(local)) + 1;
+        }
+        return toGlobal[local] - 1;
+    }
+
+    /** One line-aligned byte range of the file and the routes parsed from
+     * it. A chunk is parsed by one thread and keeps all of its own state. */
+    private final class Chunk implements Callable<Chunk> {
+        final long start; // offset of the first byte
+        final long end; // offset just past the last byte
+        final AirportCodes codes = new AirportCodes();
+        final RouteTable routes = new RouteTable(policy);
+        int rows; // lines parsed into routes
+
+        // bounds of the needed fields in the line just scanned, and the
+        // number of fields seen in it, up to lastCol + 1
+        private int originStart, originEnd;
+        private int destStart, destEnd;
+        private int distanceStart, distanceEnd;
+        private int fields;
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /** Parse every line of the chunk into routes. */
+        @Override
+        public Chunk call() throws IOException {
+            int len = (int) (end - start);
+            MappedByteBuffer buf;
+            try (FileChannel ch = FileChannel.open(file.toPath(),
+                    StandardOpenOption.READ)) {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, start, len);
+            }
+            int p = 0;
+            while (p < len) {
+                int lineEnd = scanLine(buf, p, len);
+                int next = lineEnd + 1;
+                if (lineEnd > p && buf.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd > p) {
+                    parseFlight(buf, p, lineEnd);
+                    rows++;
+                }
+                p = next;
+            }
+            return this;
+        }
+
+        /* Scan the line starting at start in a single pass, recording the
+         * bounds of the needed fields, and return the index of the '\n'
+         * that ends it, or len if there is none. Fields after lastCol are
+         * skipped without being split. */
+        private int scanLine(ByteBuffer buf, int start, int len) {
+            fields = 0;
+            int fieldStart = start;
+            int i = start;
+            while (i < len) {
+                byte b = buf.get(i);
+                if (b == '\n') {
+                    break;
+                }
+                if (b == ',') {
+                    field(fieldStart, i);
+                    fieldStart = i + 1;
+                    if (fields > lastCol) {
+                        return lineEnd(buf, i, len);
+                    }
+                }
+                i++;
+            }
+            // the last field ends before a \r\n line ending
+            int end = i > fieldStart && buf.get(i - 1) == '\r' ? i - 1 : i;
+            field(fieldStart, end);
+            return i;
+        }
+
+        /* Record buf[start..end-1] as the next field of the line. */
+        private void field(int start, int end) {
+            if (fields == originCol) {
+                originStart = start;
+                originEnd = end;
+            }
+            if (fields == destCol) {
+                destStart = start;
+                destEnd = end;
+            }
+            if (fields == distanceCol) {
+                distanceStart = start;
+                distanceEnd = end;
+            }
+            fields++;
+        }
+
+        /* Add the route in the line buf[start..end-1], just scanned by
+         * scanLine, to routes. */
+        private void parseFlight(ByteBuffer buf, int start, int end) {
+            if (fields <= lastCol) {
+                throw new IllegalArgumentException("Too few fields in line: "
+                        + string(buf, start, end));
+            }
+            int orig = intern(codes, buf, originStart, originEnd);
+            int dest = intern(codes, buf, destStart, destEnd);
+            double miles = parseDouble(buf,
+                    unquotedStart(buf, distanceStart, distanceEnd),
+                    unquotedEnd(buf, distanceStart, distanceEnd));
+            routes.add(orig, dest, miles);
+        }
+    }
+
+    /* Intern the code in buf[start..end-1] with its quotes removed. */
+    private static int intern(AirportCodes codes, ByteBuffer buf, int start,
+            int end) {
+        return codes.intern(buf, unquotedStart(buf, start, end),
+                unquotedEnd(buf, start, end));
+    }
+
+    /* Return the start of buf[start..end-1] without a leading quote. */
+    private static int unquotedStart(ByteBuffer buf, int start, int end) {
+        return end > start && buf.get(start) == '"' ? start + 1 : start;
+    }
+
+    /* Return the end of buf[start..end-1] without a trailing quote. */
+    private static int unquotedEnd(ByteBuffer buf, int start, int end) {
+        return end > start + 1 && buf.get(end - 1) == '"' ? end - 1 : end;
+    }
+
+    /* Find the origin, dest and distance columns in the header line
+     * buf[start..end-1]. Header names are matched case-insensitively with
+     * quotes removed, as in DB1BParser. */
+    private void parseHeaders(ByteBuffer buf, int start, int end) {
+        String[] headers = string(buf, start, end).split(",");
+        originCol = -1;
+        destCol = -1;
+        distanceCol = -1;
+        for (int i = 0; i < headers.length; i++) {
+            String h = headers[i].replace("\"", "").toLowerCase();
+            if (h.equals("origin")) {
+                originCol = i;
+            } else if (h.equals("dest")) {
+                destCol = i;
+            } else if (h.equals("distance")) {
+                distanceCol = i;
+            }
+        }
+        if (originCol < 0 || destCol < 0 || distanceCol < 0) {
+            throw new IllegalArgumentException(
+                    "Header needs origin, dest and distance columns");
+        }
+        lastCol = Math.max(originCol, Math.max(destCol, distanceCol));
+    }
+
+    /* Return the index of the first '\n' in buf at or after start, or len
+     * if there is none. */
+    private static int lineEnd(ByteBuffer buf, int start, int len) {
+        for (int i = start; i < len; i++) {
+            if (buf.get(i) == '\n') {
+                return i;
+            }
+        }
+        return len;
+    }
+
+    /* Parse the decimal number in buf[start..end-1]. Plain numbers such as
+     * 2475 or 2475.00 are parsed from the bytes; dividing an exact mantissa
+     * by an exact power of ten gives the same correctly rounded result as
+     * Double.parseDouble. Anything else (exponents, very long mantissas) is
+     * left to Double.parseDouble. */
+    static double parseDouble(ByteBuffer buf, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0; // significant digits so far
+        boolean sawDigit = false;
+        int scale = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                if (digits == 15) {
+                    break; // may not convert to a double exactly
+                }
+                sawDigit = true;
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (point) {
+                    scale++;
+                }
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (i < end || !sawDigit || scale > 22) {
+            return Double.parseDouble(string(buf, start, end));
+        }
+        double d = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -d : d;
+    }
+
+    // 10^0 .. 10^22, every one exactly representable as a double
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /* Return buf[start..end-1] as a String. */
+    private static String string(ByteBuffer buf, int start, int end) {
+        byte[] b = new byte[end - start];
+        for (int i = 0; i < b.length; i++) {
+            b[i] = buf.get(start + i);
+        }
+        return new String(b, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,233 @@
+package graph;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/** Algorithm-level counters for ShortestPaths, its frontiers and the hash
+ * tables, for telling why a query was slow: whether it settled too many
+ * nodes, did too many decrease-keys, or walked long probe sequences. The
+ * hash counters only move for frontier=heap, whose Heap keeps positions in
+ * an OpenHashTable, or for direct users of HashTable.
+ *
+ * Metrics are collected only if the JVM is started with
+ * -Dgraph.metrics=true. ENABLED is a static final field, so when it is false
+ * the JIT compiler removes every "if (Metrics.ENABLED)" block and no
+ * counting is done. The blocks still add bytecode, which the JIT weighs
+ * when deciding what to inline, so counters are kept out of the hottest
+ * methods: IntHeap and DaryHeap do not count their sifts. Counters are
+ * LongAdders, so threads running queries at once do not contend on them,
+ * and ShortestPaths adds its counts once per query rather than once per
+ * edge. When enabled, the metrics are registered as the MBean
+ * "graph:type=Metrics" (see MetricsMXBean) the first time they are used.
+ * Sample usage:
+ *   java -Dgraph.metrics=true ... graph.ShortestPaths db1b data.csv ORD
+ *   Map<String,Long> m = Metrics.snapshot();
+ *   */
+public final class Metrics implements MetricsMXBean {
+
+    /** True if metrics are collected: the system property graph.metrics
+     * was "true" when this class was loaded. */
+    public static final boolean ENABLED = Boolean.getBoolean("graph.metrics");
+
+    /** The name the metrics are registered under. */
+    public static final String OBJECT_NAME = "graph:type=Metrics";
+
+    static final LongAdder queries = new LongAdder();
+    static final LongAdder nodesSettled = new LongAdder();
+    static final LongAdder edgesRelaxed = new LongAdder();
+    static final LongAdder successfulRelaxations = new LongAdder();
+    static final LongAccumulator frontierPeakSize =
+        new LongAccumulator(Math::max, 0);
+    static final LongAdder heapSwaps = new LongAdder();
+    static final LongAdder frontierChangePriorityCalls = new LongAdder();
+    static final LongAdder bucketScans = new LongAdder();
+    static final LongAdder hashLookups = new LongAdder();
+    static final LongAdder hashProbes = new LongAdder();
+    static final LongAccumulator hashMaxProbeLength =
+        new LongAccumulator(Math::max, 0);
+    static final LongAdder hashResizes = new LongAdder();
+    static final LongAdder hashResizeNanos = new LongAdder();
+
+    private static final Metrics INSTANCE = new Metrics();
+    private static boolean registered;
+
+    static {
+        if (ENABLED) {
+            register();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /** Return the metrics as an MXBean. */
+    public static MetricsMXBean get() {
+        return INSTANCE;
+    }
+
+    /** Register the metrics with the platform MBeanServer as OBJECT_NAME,
+     * if they are not registered yet. This happens on first use when
+     * metrics are enabled, so it is only needed to see the (all zero)
+     * metrics of a JVM that has them disabled. */
+    public static synchronized void register() {
+        if (registered) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+            registered = true;
+        } catch (JMException e) {
+            throw new IllegalStateException(
+                    "Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    /** Add the counts of one ShortestPaths computation. */
+    static void recordQuery(int settled, long relaxed, long improved,
+            int frontierPeak) {
+        queries.increment();
+        nodesSettled.add(settled);
+        edgesRelaxed.add(relaxed);
+        successfulRelaxations.add(improved);
+        frontierPeakSize.accumulate(frontierPeak);
+    }
+
+    /** Add a hash table lookup that examined probes entries or slots. */
+    static void recordLookup(int probes) {
+        hashLookups.increment();
+        hashProbes.add(probes);
+        hashMaxProbeLength.accumulate(probes);
+    }
+
+    /** Add a hash table resize that took nanos nanoseconds. */
+    static void recordResize(long nanos) {
+        hashResizes.increment();
+        hashResizeNanos.add(nanos);
+    }
+
+    /** Return every metric by its MXBean attribute name, in the order of
+     * MetricsMXBean. */
+    public static Map<String,Long> snapshot() {
+        Map<String,Long> m = new LinkedHashMap<>();
+        m.put("Queries", queries.sum());
+        m.put("NodesSettled", nodesSettled.sum());
+        m.put("EdgesRelaxed", edgesRelaxed.sum());
+        m.put("SuccessfulRelaxations", successfulRelaxations.sum());
+        m.put("FrontierPeakSize", frontierPeakSize.get());
+        m.put("HeapSwaps", heapSwaps.sum());
+        m.put("FrontierChangePriorityCalls",
+                frontierChangePriorityCalls.sum());
+        m.put("BucketScans", bucketScans.sum());
+        m.put("HashLookups", hashLookups.sum());
+        m.put("HashProbes", hashProbes.sum());
+        m.put("HashMaxProbeLength", hashMaxProbeLength.get());
+        m.put("HashResizes", hashResizes.sum());
+        m.put("HashResizeNanos", hashResizeNanos.sum());
+        return m;
+    }
+
+    /** Print every metric to standard output, one per line. */
+    public static void report() {
+        System.out.println("Metrics:");
+        for (Map.Entry<String,Long> e : snapshot().entrySet()) {
+            System.out.println("  " + e.getKey() + ": " + e.getValue());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    @Override
+    public long getNodesSettled() {
+        return nodesSettled.sum();
+    }
+
+    @Override
+    public long getEdgesRelaxed() {
+        return edgesRelaxed.sum();
+    }
+
+    @Override
+    public long getSuccessfulRelaxations() {
+        return successfulRelaxations.sum();
+    }
+
+    @Override
+    public long getFrontierPeakSize() {
+        return frontierPeakSize.get();
+    }
+
+    @Override
+    public long getHeapSwaps() {
+        return heapSwaps.sum();
+    }
+
+    @Override
+    public long getFrontierChangePriorityCalls() {
+        return frontierChangePriorityCalls.sum();
+    }
+
+    @Override
+    public long getBucketScans() {
+        return bucketScans.sum();
+    }
+
+    @Override
+    public long getHashLookups() {
+        return hashLookups.sum();
+    }
+
+    @Override
+    public long getHashProbes() {
+        return hashProbes.sum();
+    }
+
+    @Override
+    public long getHashMaxProbeLength() {
+        return hashMaxProbeLength.get();
+    }
+
+    @Override
+    public long getHashResizes() {
+        return hashResizes.sum();
+    }
+
+    @Override
+    public long getHashResizeNanos() {
+        return hashResizeNanos.sum();
+    }
+
+    @Override
+    public void reset() {
+        queries.reset();
+        nodesSettled.reset();
+        edgesRelaxed.reset();
+        successfulRelaxations.reset();
+        frontierPeakSize.reset();
+        heapSwaps.reset();
+        frontierChangePriorityCalls.reset();
+        bucketScans.reset();
+        hashLookups.reset();
+        hashProbes.reset();
+        hashMaxProbeLength.reset();
+        hashResizes.reset();
+        hashResizeNanos.reset();
+    }
+}
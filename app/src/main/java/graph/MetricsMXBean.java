@@ -0,0 +1,65 @@
+package graph;
+
+/** The management interface of Metrics, registered with the platform
+ * MBeanServer as "graph:type=Metrics" so the counters can be watched in
+ * JConsole or VisualVM, or read by any JMX client. Every value is a total
+ * since the JVM started or since the last reset, except the peaks, which
+ * are maximums. */
+public interface MetricsMXBean {
+
+    /** Return true if metrics are being collected (see Metrics.ENABLED). */
+    boolean isEnabled();
+
+    /** Return the number of ShortestPaths computations run. */
+    long getQueries();
+
+    /** Return the number of nodes settled by ShortestPaths. */
+    long getNodesSettled();
+
+    /** Return the number of edges ShortestPaths examined from settled
+     * nodes. */
+    long getEdgesRelaxed();
+
+    /** Return the number of examined edges that reached a node for the
+     * first time or shortened its path. */
+    long getSuccessfulRelaxations();
+
+    /** Return the largest frontier any ShortestPaths computation had. */
+    long getFrontierPeakSize();
+
+    /** Return the number of swaps done by Heap.bubbleUp and
+     * Heap.bubbleDown (frontier=heap). IntHeap and DaryHeap do not count
+     * their sifts: the extra code in add and poll changes how the JIT
+     * inlines Dijkstra's inner loop, slowing it even with metrics off. */
+    long getHeapSwaps();
+
+    /** Return the number of changePriority calls on any frontier (Heap,
+     * IntHeap, DaryHeap, BucketQueue, PairingHeap or LazyFrontier). In
+     * Dijkstra's algorithm each is a decrease-key. */
+    long getFrontierChangePriorityCalls();
+
+    /** Return the number of empty buckets BucketQueue.poll stepped over. */
+    long getBucketScans();
+
+    /** Return the number of HashTable and OpenHashTable lookups. A
+     * lookup during an incremental resize may search both the old and the
+     * new table and count twice. */
+    long getHashLookups();
+
+    /** Return the total number of chain entries (HashTable) or slots
+     * (OpenHashTable, counting the empty slot that ends a miss) that
+     * lookups examined; divided by getHashLookups, the mean probe length. */
+    long getHashProbes();
+
+    /** Return the most entries or slots any one lookup examined. */
+    long getHashMaxProbeLength();
+
+    /** Return the number of times a HashTable or OpenHashTable grew. */
+    long getHashResizes();
+
+    /** Return the total time, in nanoseconds, hash tables spent growing. */
+    long getHashResizeNanos();
+
+    /** Set every value back to zero. */
+    void reset();
+}
@@ -1,25 +1,37 @@
 package graph;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /** A Node class for a adjacency-list representation of a graph.  Nodes are
  * identified by a unique String identifier and edges are stored as a Neighbor
  * map that associates each neighboring node with the weight of the edge to
  * that node. It is the responsibility of the user of this class to avoid
- * making multiple Nodes with the same unique identifier. */
+ * making multiple Nodes with the same unique identifier. The map is backed
+ * by primitive arrays (see Adjacency) rather than a HashMap, since most
+ * nodes have few edges. */
 public class Node {
 
     private final String id; // unique identifier for this node
+    private final int hash; // id.hashCode(), kept to skip a String access
+
+    // position of this node in its Graph: 0, 1, 2, ... in order of
+    // creation, or -1 if the node was not created by a Graph
+    private int index = -1;
 
     // for each node v that has an edge from this to v, neighbors maps
     //  v -> the weight of the edge
-     private HashMap<Node,Double> neighbors;
+    private final Adjacency neighbors;
+
+    // for each node u that has an edge from u to this, incoming maps
+    //  u -> the weight of the edge. Maintained by Graph.addEdge.
+    private final Adjacency incoming;
 
     /** Constructor: create node with the given id */
     public Node(String id) {
         this.id = id;
-        neighbors = new HashMap<Node,Double>();
+        this.hash = id.hashCode();
+        neighbors = new Adjacency();
+        incoming = new Adjacency();
     }
 
     /** Return this node's unique identifier */
@@ -27,16 +39,50 @@ public class Node {
         return id;
     }
 
-    /** Return the map that associates each neighbor with the weight of the
-     * edge to that neighbor. */
-    public HashMap<Node,Double> getNeighbors() {
+    /** Return this node's index in the Graph that created it. A graph with
+     * n nodes numbers them 0..n-1 in order of creation, so the index can be
+     * used to keep per-node data in arrays. Returns -1 for a node that was
+     * not created by Graph.getNode. */
+    public int getIndex() {
+        return index;
+    }
+
+    /** Set this node's index in its graph. */
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    /** Return a read-only map that associates each neighbor with the weight
+     * of the edge to that neighbor, in the order the edges were added. */
+    public Map<Node,Double> getNeighbors() {
+        return neighbors;
+    }
+
+    /** Return this node's outgoing edges, for walking them by position. */
+    Adjacency neighbors() {
         return neighbors;
     }
 
     /** Add an edge to neighbor with the given weight. If such an edge already
-     * existed, update its weight. */
-    public void addNeighbor(Node neighbor, double weight) {
-        neighbors.put(neighbor, weight);
+     * existed, update its weight. Return the previous weight of the edge, or
+     * null if there was none. Only Graph.addEdge calls this, since it also
+     * records the incoming edge and updates the graph's version and weight
+     * statistics; use that instead. */
+    Double addNeighbor(Node neighbor, double weight) {
+        return neighbors.set(neighbor, weight);
+    }
+
+    /** Return a read-only map that associates each node with an edge to
+     * this node with the weight of that edge. Only edges added with
+     * Graph.addEdge are included. */
+    public Map<Node,Double> getIncoming() {
+        return incoming;
+    }
+
+    /** Record an edge from source to this node with the given weight. If
+     * such an edge was already recorded, update its weight. */
+    void addIncoming(Node source, double weight) {
+        incoming.set(source, weight);
     }
 
     /** returns the Node's unique identifier */
@@ -48,16 +94,20 @@ public class Node {
     /** equals: two nodes are equal if their unique ids are equal */
     @Override
     public boolean equals(Object ob) {
+      if (ob == this) {
+        return true;
+      }
       if (ob == null || !(ob instanceof Node)) {
         return false;
       }
-      return id.equals(((Node)ob).id);
+      Node other = (Node) ob;
+      return hash == other.hash && id.equals(other.id);
     }
 
     /** Hashes the unique id */
     @Override
     public int hashCode() {
-      return id.hashCode();
+      return hash;
     }
 
 }
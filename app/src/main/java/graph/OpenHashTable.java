@@ -0,0 +1,315 @@
+package graph;
+
+/** A hash table with the same get/put/remove/containsKey contract as
+ * HashTable, using open addressing instead of chaining. Keys and values are
+ * stored in parallel arrays whose capacity is always a power of two, so a
+ * bucket index is found by masking a spread hash code rather than with %.
+ * Collisions are resolved by linear probing, and remove shifts later entries
+ * of the probe sequence back into the hole, so no tombstones are needed. The
+ * table doubles in size when the load factor exceeds 0.75.
+ *
+ * As in HashTable, the table is rehashed all at once by default. In
+ * incremental mode the old arrays are kept after a resize and at most
+ * MIGRATION_STEP of their slots are emptied into the new arrays on each get,
+ * put or remove. Each entry leaves the old arrays by the same backward shift
+ * remove uses, so both tables stay valid for linear probing and lookups
+ * check both until the migration finishes. Heap uses this mode, so a HEAP
+ * frontier never stops to rehash its whole position map. */
+public class OpenHashTable<K,V> {
+
+    /** number of old slots migrated per operation in incremental mode */
+    public static final int MIGRATION_STEP = 4;
+
+    protected Object[] keys; // keys[i] is null if slot i is empty
+    protected Object[] vals; // vals[i] is the value mapped from keys[i]
+    protected int size; // how many items currently in the map
+    protected int mask; // keys.length - 1
+
+    private final boolean incremental; // true if resizes are incremental
+    // arrays from before the last resize that are still being migrated, or
+    // null if no migration is in progress. Every key is in exactly one of
+    // the two tables, and oldKeys[0..migrated-1] are all empty.
+    private Object[] oldKeys;
+    private Object[] oldVals;
+    private int migrated;
+
+    /** constructor: initialize with default capacity 16 */
+    public OpenHashTable() {
+        this(16);
+    }
+
+    /** constructor: initialize with room for at least the given capacity,
+     * rounded up to a power of two */
+    public OpenHashTable(int capacity) {
+        this(capacity, false);
+    }
+
+    /** constructor: initialize with room for at least the given capacity,
+     * rounded up to a power of two. If incremental is true, the table is
+     * rehashed a few slots at a time when it grows. */
+    public OpenHashTable(int capacity, boolean incremental) {
+        int cap = 2;
+        while (cap < capacity) {
+            cap *= 2;
+        }
+        keys = new Object[cap];
+        vals = new Object[cap];
+        mask = cap - 1;
+        this.incremental = incremental;
+    }
+
+    /** Return the size of the map (the number of key-value mappings in the
+     * table) */
+    public int getSize() {
+        return size;
+    }
+
+    /** Return the current capacity of the table (the length of the key
+     * array) */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /** Return true if an incremental resize is still in progress. */
+    public boolean isResizing() {
+        return oldKeys != null;
+    }
+
+    /** Return the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Runtime: average case O(1); worst case O(size) */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        migrateSome();
+        int i = find(keys, key);
+        if (i >= 0) {
+            return (V) vals[i];
+        }
+        if (oldKeys != null) {
+            i = find(oldKeys, key);
+            if (i >= 0) {
+                return (V) oldVals[i];
+            }
+        }
+        return null;
+    }
+
+    /** Associate the specified value with the specified key in this map. If
+     * the map previously contained a mapping for the key, the old value is
+     * replaced. Return the previous value associated with key, or null if
+     * there was no mapping for key.
+     * Precondition: key and val are not null.
+     * Runtime: average case O(1); worst case O(size + capacity) */
+    @SuppressWarnings("unchecked")
+    public V put(K key, V val) {
+        migrateSome();
+        // a key not yet migrated is updated where it is
+        if (oldKeys != null) {
+            int j = find(oldKeys, key);
+            if (j >= 0) {
+                V oldValue = (V) oldVals[j];
+                oldVals[j] = val;
+                return oldValue;
+            }
+        }
+        int i = spread(key.hashCode()) & mask;
+        int probes = 1; // slots examined, for Metrics
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k == key || k.equals(key)) {
+                if (Metrics.ENABLED) {
+                    Metrics.recordLookup(probes);
+                }
+                V oldValue = (V) vals[i];
+                vals[i] = val;
+                return oldValue;
+            }
+            i = (i + 1) & mask;
+            probes++;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordLookup(probes);
+        }
+        keys[i] = key;
+        vals[i] = val;
+        size++;
+        growIfNeeded();
+        return null;
+    }
+
+    /** Return true if this map contains a mapping for the specified key.
+     *  Runtime: average case O(1); worst case O(size) */
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /** Remove the mapping for the specified key from this map if present.
+     *  Return the previous value associated with key, or null if there was no
+     *  mapping for key.
+     *  Runtime: average case O(1); worst case O(size)*/
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        migrateSome();
+        Object[] ks = keys;
+        Object[] vs = vals;
+        int i = find(ks, key);
+        if (i < 0 && oldKeys != null) {
+            ks = oldKeys;
+            vs = oldVals;
+            i = find(ks, key);
+        }
+        if (i < 0) {
+            return null;
+        }
+        V oldValue = (V) vs[i];
+        size--;
+        delete(ks, vs, i);
+        return oldValue;
+    }
+
+    /* Return the slot of table ks holding key, or -1 if key is not in it. */
+    private static int find(Object[] ks, Object key) {
+        int m = ks.length - 1;
+        int i = spread(key.hashCode()) & m;
+        int probes = 1; // slots examined, for Metrics
+        Object k;
+        while ((k = ks[i]) != null) {
+            if (k == key || k.equals(key)) {
+                if (Metrics.ENABLED) {
+                    Metrics.recordLookup(probes);
+                }
+                return i;
+            }
+            i = (i + 1) & m;
+            probes++;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordLookup(probes);
+        }
+        return -1;
+    }
+
+    /* Empty slot i of the table ks, vs. Backward-shift deletion: walk the
+     * probe sequence after the hole and move back any entry whose home slot
+     * does not lie strictly between the hole and its current slot
+     * (cyclically), so every remaining key stays reachable from its home
+     * slot without a gap. */
+    private static void delete(Object[] ks, Object[] vs, int i) {
+        int m = ks.length - 1;
+        int hole = i;
+        int j = (i + 1) & m;
+        Object k;
+        while ((k = ks[j]) != null) {
+            int home = spread(k.hashCode()) & m;
+            if (((j - home) & m) >= ((j - hole) & m)) {
+                ks[hole] = k;
+                vs[hole] = vs[j];
+                hole = j;
+            }
+            j = (j + 1) & m;
+        }
+        ks[hole] = null;
+        vs[hole] = null;
+    }
+
+    /* Put key k, which is in neither table, with value v into the first
+     * free slot of its probe sequence in the current arrays. */
+    private void insert(Object k, Object v) {
+        int i = spread(k.hashCode()) & mask;
+        while (keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = k;
+        vals[i] = v;
+    }
+
+    /* Mix the high bits of h into the low bits, which are the only ones
+     * kept by masking. */
+    static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /* If the load factor exceeds 0.75, double the capacity and reinsert every
+     * entry into the new arrays, or in incremental mode start migrating
+     * them, recording a ResizeEvent for Flight Recorder. No resize is due
+     * while a migration is in progress: the new arrays are about 3/8 full
+     * when it starts, and every put migrates MIGRATION_STEP old slots, so
+     * the migration ends within capacity/8 puts, with the arrays at most
+     * half full. */
+    private void growIfNeeded() {
+        if (size * 4 <= keys.length * 3 || oldKeys != null) {
+            return;
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        ResizeEvent event = new ResizeEvent();
+        event.begin();
+        Object[] ok = keys;
+        Object[] ov = vals;
+        keys = new Object[ok.length * 2];
+        vals = new Object[ok.length * 2];
+        mask = keys.length - 1;
+        int moved = 0;
+        // probing needs an empty slot to stop at, so a full old table (only
+        // possible at capacity 4 or less) is rehashed at once
+        if (incremental && size < ok.length) {
+            oldKeys = ok;
+            oldVals = ov;
+            migrated = 0;
+        } else {
+            for (int j = 0; j < ok.length; j++) {
+                if (ok[j] != null) {
+                    insert(ok[j], ov[j]);
+                }
+            }
+            moved = size;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordResize(System.nanoTime() - start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.collection = getClass();
+            event.oldCapacity = ok.length;
+            event.newCapacity = keys.length;
+            event.entriesMoved = moved;
+            event.commit();
+        }
+    }
+
+    /* In incremental mode, move the entries of up to MIGRATION_STEP old
+     * slots into the current arrays. Removing an entry may shift a later
+     * one of its probe sequence back into the same slot, so a slot is only
+     * done once it is empty; slots before it stay empty, since nothing is
+     * inserted into the old arrays. */
+    private void migrateSome() {
+        if (oldKeys == null) {
+            return;
+        }
+        int end = Math.min(migrated + MIGRATION_STEP, oldKeys.length);
+        for (; migrated < end; migrated++) {
+            while (oldKeys[migrated] != null) {
+                insert(oldKeys[migrated], oldVals[migrated]);
+                delete(oldKeys, oldVals, migrated);
+            }
+        }
+        if (migrated == oldKeys.length) {
+            oldKeys = null;
+            oldVals = null;
+        }
+    }
+
+    /* useful method for debugging - prints the contents of every slot */
+    protected void dump() {
+        System.out.println("Table size: " + getSize() + " capacity: " +
+                getCapacity());
+        for (int i = 0; i < keys.length; i++) {
+            System.out.println(i + ": " + (keys[i] == null ? "-" :
+                    "(" + keys[i] + ", " + vals[i] + ")"));
+        }
+        if (oldKeys != null) {
+            System.out.println("Migrating; old slots " + migrated + "-" +
+                    (oldKeys.length - 1) + " not yet moved");
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** A pairing heap of distinct non-negative int keys with double priorities.
+ * The tree is stored in int arrays indexed by key: each key has a leftmost
+ * child, a next sibling, and a prev link that points at its previous sibling,
+ * or at its parent if it is a leftmost child. Decreasing a priority cuts the
+ * key's subtree and links it with the root in O(1); poll merges the root's
+ * children in two passes, for O(log n) amortized time. */
+public final class PairingHeap implements Frontier {
+
+    private double[] prio; // prio[v] is v's priority while v is in the heap
+    private int[] child; // leftmost child of v, or -1
+    private int[] next; // next sibling of v, or -1
+    private int[] prev; // previous sibling, or parent if leftmost; -1 at root
+    private boolean[] in; // in[v] is true iff v is in the heap
+    private int[] scratch; // work space for two-pass merging and clear
+    private int root = -1;
+    private int size;
+
+    /** Constructor: an empty heap with room for keys 0..capacity-1. Larger
+     * keys may still be added; the arrays grow by doubling. */
+    public PairingHeap(int capacity) {
+        allocate(Math.max(capacity, 1));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int v) {
+        return v < in.length && in[v];
+    }
+
+    @Override
+    public void add(int v, double p) {
+        if (v < 0 || contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        if (v >= in.length) {
+            grow(v);
+        }
+        prio[v] = p;
+        child[v] = next[v] = prev[v] = -1;
+        in[v] = true;
+        size++;
+        root = root == -1 ? v : link(root, v);
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int r = root;
+        in[r] = false;
+        size--;
+        root = mergePairs(child[r]);
+        child[r] = -1;
+        return r;
+    }
+
+    @Override
+    public void changePriority(int v, double p) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException();
+        }
+        if (Metrics.ENABLED) {
+            Metrics.frontierChangePriorityCalls.increment();
+        }
+        double old = prio[v];
+        if (p < old) {
+            // cut v's subtree, which stays heap-ordered, and link it back in
+            prio[v] = p;
+            if (v != root) {
+                cut(v);
+                root = link(root, v);
+            }
+        } else if (p > old) {
+            // v's children may now belong above v: detach v alone, merge its
+            // children back into the heap, and reinsert v
+            if (v == root) {
+                root = mergePairs(child[v]);
+            } else {
+                cut(v);
+                int sub = mergePairs(child[v]);
+                if (sub != -1) {
+                    root = link(root, sub);
+                }
+            }
+            child[v] = -1;
+            prio[v] = p;
+            root = root == -1 ? v : link(root, v);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (root == -1) {
+            return;
+        }
+        int n = 0;
+        scratch[n++] = root;
+        while (n > 0) {
+            int v = scratch[--n];
+            in[v] = false;
+            for (int c = child[v]; c != -1; c = next[c]) {
+                scratch[n++] = c;
+            }
+        }
+        root = -1;
+        size = 0;
+    }
+
+    /* Link the trees rooted at a and b, which have no siblings, and return
+     * the root of the result. On tied priorities a stays the root. */
+    private int link(int a, int b) {
+        if (prio[b] < prio[a]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        next[b] = child[a];
+        if (child[a] != -1) {
+            prev[child[a]] = b;
+        }
+        prev[b] = a;
+        child[a] = b;
+        return a;
+    }
+
+    /* Detach the subtree rooted at v (which is not the root) from its
+     * parent and siblings. */
+    private void cut(int v) {
+        int p = prev[v];
+        if (child[p] == v) {
+            child[p] = next[v];
+        } else {
+            next[p] = next[v];
+        }
+        if (next[v] != -1) {
+            prev[next[v]] = p;
+        }
+        next[v] = prev[v] = -1;
+    }
+
+    /* Merge the sibling list starting at first into one tree and return its
+     * root, or -1 if the list is empty. Siblings are linked in pairs from
+     * left to right, then the pairs are linked from right to left. */
+    private int mergePairs(int first) {
+        int n = 0;
+        for (int c = first; c != -1; ) {
+            int nxt = next[c];
+            next[c] = prev[c] = -1;
+            scratch[n++] = c;
+            c = nxt;
+        }
+        if (n == 0) {
+            return -1;
+        }
+        int k = 0;
+        for (int i = 0; i + 1 < n; i += 2) {
+            scratch[k++] = link(scratch[i], scratch[i + 1]);
+        }
+        if (n % 2 == 1) {
+            scratch[k++] = scratch[n - 1];
+        }
+        int r = scratch[k - 1];
+        for (int i = k - 2; i >= 0; i--) {
+            r = link(scratch[i], r);
+        }
+        return r;
+    }
+
+    /* Create the arrays with the given capacity. */
+    private void allocate(int capacity) {
+        prio = new double[capacity];
+        child = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        in = new boolean[capacity];
+        scratch = new int[capacity];
+    }
+
+    /* Grow the arrays so that key v fits, doubling capacity as needed, and
+     * record a ResizeEvent for Flight Recorder. */
+    private void grow(int v) {
+        ResizeEvent event = new ResizeEvent();
+        event.begin();
+        int oldCap = in.length;
+        int newCap = in.length;
+        while (newCap <= v) {
+            newCap *= 2;
+        }
+        prio = Arrays.copyOf(prio, newCap);
+        child = Arrays.copyOf(child, newCap);
+        next = Arrays.copyOf(next, newCap);
+        prev = Arrays.copyOf(prev, newCap);
+        in = Arrays.copyOf(in, newCap);
+        scratch = new int[newCap];
+        event.end();
+        if (event.shouldCommit()) {
+            event.collection = PairingHeap.class;
+            event.oldCapacity = oldCap;
+            event.newCapacity = newCap;
+            event.entriesMoved = oldCap;
+            event.commit();
+        }
+    }
+}
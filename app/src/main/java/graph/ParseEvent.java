@@ -0,0 +1,35 @@
+package graph;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** A Java Flight Recorder event for one parse of a graph file, by
+ * BasicParser, DB1BParser or MappedDB1BParser. Its duration is the time the
+ * parse took, so loads can be lined up with GC pauses and CPU samples in a
+ * recording. Like every JFR event, it costs next to nothing unless a
+ * recording with it enabled is running. */
+@Name("graph.Parse")
+@Label("Graph Parse")
+@Category("Graph")
+@Description("Parsing of a graph file")
+final class ParseEvent extends jdk.jfr.Event {
+
+    @Label("Parser")
+    String parser;
+
+    @Label("File")
+    String file;
+
+    @Label("Rows")
+    @Description("Data rows parsed, not counting a header")
+    long rows;
+
+    @Label("Bytes")
+    @Description("Bytes of the file read; the Scanner-based parsers count "
+            + "the characters of the rows")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,25 @@
+package graph;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** A Java Flight Recorder event for one ShortestPaths computation, from
+ * any of the compute methods. Its duration is the time Dijkstra's
+ * algorithm ran. */
+@Name("graph.ShortestPathsQuery")
+@Label("Shortest Paths Query")
+@Category("Graph")
+@Description("A shortest paths computation from one origin")
+final class QueryEvent extends jdk.jfr.Event {
+
+    @Label("Origin")
+    String origin;
+
+    @Label("Frontier")
+    String frontier;
+
+    @Label("Nodes Settled")
+    int settled;
+}
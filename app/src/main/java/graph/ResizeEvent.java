@@ -0,0 +1,38 @@
+package graph;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** A Java Flight Recorder event for one growth of the backing array of a
+ * HashTable, OpenHashTable or AList, of the per-value arrays of an IntHeap,
+ * DaryHeap, BucketQueue, PairingHeap or LazyFrontier, or of a
+ * LazyFrontier's entry heap. Its duration is the time spent allocating the
+ * new array and moving entries into it. */
+@Name("graph.Resize")
+@Label("Collection Resize")
+@Category("Graph")
+@Description("Growth of a hash table's or a frontier's arrays, or of an "
+        + "AList's array")
+final class ResizeEvent extends jdk.jfr.Event {
+
+    @Label("Collection")
+    Class<?> collection;
+
+    @Label("Array")
+    @Description("Which array grew, for a BucketQueue: \"buckets\" or "
+            + "\"keys\"; for a LazyFrontier: \"entries\" or \"keys\"")
+    String array;
+
+    @Label("Old Capacity")
+    int oldCapacity;
+
+    @Label("New Capacity")
+    int newCapacity;
+
+    @Label("Entries Moved")
+    @Description("Entries moved into the new array during the resize; an "
+            + "incremental hash table moves the rest later")
+    long entriesMoved;
+}
@@ -0,0 +1,103 @@
+package graph;
+
+import java.util.Arrays;
+
+/** A map from routes, given as a pair of int airport ids, to a weight. The
+ * two ids are packed into one long key and the table uses open addressing
+ * over primitive arrays, so adding a route allocates nothing unless the
+ * table grows. Routes are kept in order of first appearance, and a route
+ * added again has its weight combined with the old one by a
+ * DuplicatePolicy. */
+final class RouteTable {
+
+    private final DuplicatePolicy policy;
+    private int[] slots; // 1 + the index of the route in each slot, or 0
+    private int mask; // slots.length - 1
+    private long[] keys; // keys[i] is route i's packed airport ids
+    private double[] weights; // weights[i] is route i's combined weight
+    private int[] counts; // counts[i] is the number of times route i appeared
+    private int size;
+
+    /** Constructor: an empty table combining duplicates with policy. */
+    RouteTable(DuplicatePolicy policy) {
+        this.policy = policy;
+        slots = new int[1024];
+        mask = slots.length - 1;
+        keys = new long[512];
+        weights = new double[512];
+        counts = new int[512];
+    }
+
+    /** Return the number of distinct routes. */
+    int size() {
+        return size;
+    }
+
+    /** Return the origin id of route i, in order of first appearance. */
+    int orig(int i) {
+        return (int) (keys[i] >>> 32);
+    }
+
+    /** Return the destination id of route i. */
+    int dest(int i) {
+        return (int) keys[i];
+    }
+
+    /** Return the combined weight of route i. */
+    double weight(int i) {
+        return weights[i];
+    }
+
+    /** Return the number of times route i appeared. */
+    int count(int i) {
+        return counts[i];
+    }
+
+    /** Add one appearance of the route orig -> dest with weight w.
+     * Precondition: orig and dest are non-negative. */
+    void add(int orig, int dest, double w) {
+        add(orig, dest, policy.initial(w), 1);
+    }
+
+    /** Add count appearances of the route orig -> dest, already combined
+     * into weight w, such as a route from another table.
+     * Precondition: orig and dest are non-negative, count >= 1 */
+    void add(int orig, int dest, double w, int count) {
+        long key = (long) orig << 32 | dest;
+        int slot = OpenHashTable.spread(Long.hashCode(key)) & mask;
+        while (slots[slot] != 0) {
+            int i = slots[slot] - 1;
+            if (keys[i] == key) {
+                weights[i] = policy.combine(weights[i], counts[i], w, count);
+                counts[i] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        keys[size] = key;
+        weights[size] = w;
+        counts[size] = count;
+        slots[slot] = ++size;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+    }
+
+    /* Double the number of slots and reinsert every route. */
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = OpenHashTable.spread(Long.hashCode(keys[i])) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package graph;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+
+/** A bounded cache of shortest path trees keyed by origin, for query loads
+ * where a few origins are asked about over and over. The first query from
+ * an origin runs Dijkstra's algorithm and keeps the resulting
+ * ShortestPathTree; later queries from that origin only walk the tree.
+ *
+ * When the cache holds more than maxTrees trees or more than maxBytes bytes
+ * of trees, the least recently used trees are evicted. All trees are
+ * dropped as soon as the graph changes (see Graph.getVersion). A cache is
+ * not thread-safe.
+ * Sample usage:
+ *   ShortestPathCache cache = new ShortestPathCache(g, 64);
+ *   double d = cache.shortestPathLength(g.getNode("ORD"), g.getNode("SFO"));
+ *   */
+public class ShortestPathCache {
+
+    private final Graph graph;
+    private final int maxTrees;
+    private final long maxBytes;
+
+    // trees by origin, from least to most recently used
+    private final LinkedHashMap<Node,ShortestPathTree> trees =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes; // total memoryBytes of the cached trees
+    private int version; // the graph's version when the trees were computed
+
+    // computes the trees for cache misses; replaced when the graph
+    // changes, since its frontier type depends on the graph's weights
+    private ShortestPaths sp;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /** Constructor: a cache of at most maxTrees trees for graph.
+     * Precondition: maxTrees >= 1 */
+    public ShortestPathCache(Graph graph, int maxTrees) {
+        this(graph, maxTrees, Long.MAX_VALUE);
+    }
+
+    /** Constructor: a cache for graph holding at most maxTrees trees whose
+     * memoryBytes add up to at most maxBytes. The most recently used tree
+     * is always kept, even if it alone is larger than maxBytes.
+     * Precondition: maxTrees >= 1 */
+    public ShortestPathCache(Graph graph, int maxTrees, long maxBytes) {
+        if (maxTrees < 1) {
+            throw new IllegalArgumentException("maxTrees must be >= 1");
+        }
+        this.graph = graph;
+        this.maxTrees = maxTrees;
+        this.maxBytes = maxBytes;
+        sp = ShortestPaths.forGraph(graph);
+        version = graph.getVersion();
+    }
+
+    /** Return the shortest path tree from origin, computing and caching it
+     * if it is not cached yet.
+     * Precondition: origin is a node in the graph. */
+    public ShortestPathTree get(Node origin) {
+        if (version != graph.getVersion()) {
+            invalidate();
+        }
+        ShortestPathTree tree = trees.get(origin);
+        if (tree != null) {
+            hits++;
+            return tree;
+        }
+        misses++;
+        sp.compute(origin);
+        tree = sp.toTree(graph);
+        trees.put(origin, tree);
+        bytes += tree.memoryBytes();
+        evict();
+        return tree;
+    }
+
+    /** Return the length of the shortest path from origin to destination,
+     * or Double.POSITIVE_INFINITY if there is none.
+     * Precondition: origin and destination are nodes in the graph. */
+    public double shortestPathLength(Node origin, Node destination) {
+        return get(origin).shortestPathLength(destination);
+    }
+
+    /** Return the nodes along the shortest path from origin to destination,
+     * including both, or null if there is no such path.
+     * Precondition: origin and destination are nodes in the graph. */
+    public LinkedList<Node> shortestPath(Node origin, Node destination) {
+        return get(origin).shortestPath(destination);
+    }
+
+    /** Drop every cached tree. */
+    public void invalidate() {
+        if (!trees.isEmpty()) {
+            invalidations++;
+        }
+        trees.clear();
+        bytes = 0;
+        if (version != graph.getVersion()) {
+            version = graph.getVersion();
+            sp = ShortestPaths.forGraph(graph);
+        }
+    }
+
+    /** Return the number of cached trees. */
+    public int size() {
+        return trees.size();
+    }
+
+    /** Return the total memoryBytes of the cached trees. */
+    public long memoryBytes() {
+        return bytes;
+    }
+
+    /** Return the number of lookups answered from the cache. */
+    public long hits() {
+        return hits;
+    }
+
+    /** Return the number of lookups that had to compute a tree. */
+    public long misses() {
+        return misses;
+    }
+
+    /** Return the number of trees evicted to stay within the bounds. */
+    public long evictions() {
+        return evictions;
+    }
+
+    /** Return the number of times cached trees were dropped because the
+     * graph changed or invalidate was called. */
+    public long invalidations() {
+        return invalidations;
+    }
+
+    /* Evict least recently used trees until the cache is within its
+     * bounds, keeping at least the most recent one. */
+    private void evict() {
+        Iterator<ShortestPathTree> it = trees.values().iterator();
+        while (trees.size() > 1
+                && (trees.size() > maxTrees || bytes > maxBytes)) {
+            ShortestPathTree eldest = it.next();
+            bytes -= eldest.memoryBytes();
+            it.remove();
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/** The shortest paths from one origin to every node settled by a
+ * ShortestPaths computation. A tree is immutable once created, so it can be
+ * handed to another thread and kept after the ShortestPaths that produced it
+ * has moved on to another origin. See ShortestPaths.toTree.
+ *
+ * The tree is stored compactly as two arrays indexed by Node.getIndex():
+ * each node's distance from the origin and the index of its parent, the
+ * previous node on its shortest path. */
+public class ShortestPathTree {
+
+    private final Graph graph;
+    private final Node origin;
+    // distance[i] is node i's distance from origin, or infinity if it was
+    // not reached
+    private final double[] distance;
+    // parent[i] is the index of the node before node i on its shortest
+    // path, or -1 for the origin and unreached nodes
+    private final int[] parent;
+    private final int reached; // number of nodes with a finite distance
+
+    /** Constructor: a tree rooted at origin over the nodes of graph. The
+     * arrays are owned by the tree and must not be modified afterwards. */
+    ShortestPathTree(Graph graph, Node origin, double[] distance,
+            int[] parent) {
+        this.graph = graph;
+        this.origin = origin;
+        this.distance = distance;
+        this.parent = parent;
+        int count = 0;
+        for (double d : distance) {
+            if (d != Double.POSITIVE_INFINITY) {
+                count++;
+            }
+        }
+        reached = count;
+    }
+
+    /** Return the origin of every path in this tree. */
+    public Node getOrigin() {
+        return origin;
+    }
+
+    /** Return the number of nodes reached from the origin, including the
+     * origin itself. */
+    public int size() {
+        return reached;
+    }
+
+    /** Return a new list of the nodes reached from the origin, in index
+     * order. */
+    public List<Node> getNodes() {
+        List<Node> result = new ArrayList<>(reached);
+        for (int i = 0; i < distance.length; i++) {
+            if (distance[i] != Double.POSITIVE_INFINITY) {
+                result.add(graph.getNode(i));
+            }
+        }
+        return result;
+    }
+
+    /** Return the approximate number of bytes this tree occupies. */
+    public long memoryBytes() {
+        // object headers and fields, plus 8 bytes per distance and 4 per
+        // parent index
+        return 64 + 12L * distance.length;
+    }
+
+    /** Return the length of the shortest path from the origin to
+     * destination, or Double.POSITIVE_INFINITY if it was not reached. */
+    public double shortestPathLength(Node destination) {
+        int i = indexOf(destination);
+        return i == -1 ? Double.POSITIVE_INFINITY : distance[i];
+    }
+
+    /** Return the node before destination on the shortest path from the
+     * origin, or null if destination is the origin or was not reached. */
+    public Node previous(Node destination) {
+        int i = indexOf(destination);
+        return i == -1 || parent[i] == -1 ? null : graph.getNode(parent[i]);
+    }
+
+    /** Return the nodes along the shortest path from the origin to
+     * destination, including both, or null if destination was not
+     * reached. */
+    public LinkedList<Node> shortestPath(Node destination) {
+        int i = indexOf(destination);
+        if (i == -1 || distance[i] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        LinkedList<Node> path = new LinkedList<>();
+        path.addFirst(destination);
+        for (int p = parent[i]; p != -1; p = parent[p]) {
+            path.addFirst(graph.getNode(p));
+        }
+        return path;
+    }
+
+    /* Return n's index if it is covered by this tree, or -1. */
+    private int indexOf(Node n) {
+        int i = n.getIndex();
+        return i >= 0 && i < distance.length ? i : -1;
+    }
+}
@@ -13,14 +13,49 @@ package graph;
  * not reachable.
  *
  * There is a min-Heap overlay to store the Frontier, and to remove the node
- * with the smallest distance from the origin from the Frontier in O(1) runtime
+ * with the smallest distance from the origin from the Frontier in O(1) runtime.
+ * The Frontier is keyed by each node's index in the graph, so heap
+ * operations work on primitive ints and doubles, and distances and previous
+ * nodes are kept in arrays that are reused from one query to the next,
+ * reset lazily by stamping entries with a per-query epoch. The Frontier's
+ * implementation can be chosen with
+ * --frontier=heap|binary|dary4|dary8|pairing|lazy|bucket (see
+ * FrontierType); by default a bucket queue is used when every weight is a
+ * non-negative integer of at most BucketQueue.MAX_AUTO_WEIGHT, and a binary
+ * heap otherwise.
+ *
+ * The search stops early when it can: as soon as the destination node is
+ * settled, and, without a destination, once the next node is farther than
+ * --radius=MILES or --nearest=K nodes have been settled.
+ *
+ * With --origins=ORIG1,ORIG2,... (or --origins=all) in place of the origin
+ * node, paths from every listed origin are computed in parallel on
+ * --threads=N threads (default: one per core) by BatchShortestPaths, and
+ * each origin's table, or path to the destination, is printed as soon as it
+ * is finished.
+ *
+ * A graph can be saved as a binary snapshot with GraphSnapshot and loaded
+ * with the file type "snapshot", which takes milliseconds instead of the
+ * seconds a large text file takes to parse. A single origin's queries on a
+ * snapshot are answered straight from the loaded CompactGraph.
+ *
+ * Run with -Dgraph.metrics=true to count the nodes settled, edges relaxed
+ * and other work done (see Metrics), and print the counts at the end.
+ * Parses, collection resizes and queries are also recorded as Java Flight
+ * Recorder events (see ParseEvent, ResizeEvent and QueryEvent), e.g. with
+ * -XX:StartFlightRecording=filename=graph.jfr.
  */
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.stream.Collectors;
 
 /** Provides an implementation of Dijkstra's single-source shortest paths
@@ -35,65 +70,288 @@ import java.util.stream.Collectors;
  *   double abPathLength = sp.getShortestPathLength(b);
  *   */
 public class ShortestPaths {
-    // stores auxiliary data associated with each node for the shortest
-    // paths computation:
-    private HashMap<Node,PathData> paths;
+    // per-node data for the shortest paths computation, indexed by
+    // Node.getIndex() and reused by every compute call. An entry belongs to
+    // the current computation only if its stamp equals epoch, so nothing
+    // has to be cleared or allocated between calls.
+    private int epoch;
+    private int[] discoveredIn = new int[0]; // epoch the node was reached in
+    private int[] settledIn = new int[0]; // epoch the node was settled in
+    private int[] targetIn = new int[0]; // epoch the node was a target in
+    private double[] distance = new double[0]; // distance from origin
+    private Node[] previous = new Node[0]; // previous node on the path
+    private Node[] nodes = new Node[0]; // the node with each index
+    // the nodes reached by the current computation, in discovery order
+    private Node[] discovered = new Node[0];
+    private int discoveredCount;
+    // the origin of the last computation
+    private Node origin;
+    // the priority queue implementation used for the frontier
+    private final FrontierType frontierType;
+    // the frontier, keyed by node index; created on first use and reused
+    private Frontier frontier;
+
+    /** Constructor: compute paths using the default (binary IntHeap)
+     * frontier. */
+    public ShortestPaths() {
+        this(FrontierType.BINARY);
+    }
+
+    /** Constructor: compute paths using the given kind of frontier. */
+    public ShortestPaths(FrontierType frontierType) {
+        this.frontierType = frontierType;
+    }
+
+    /** Return a ShortestPaths for g that uses FrontierType.forGraph(g): a
+     * BucketQueue if all of g's weights are non-negative integers that are
+     * not too large, and the default binary heap otherwise. Its per-node
+     * arrays are sized for g up front. */
+    public static ShortestPaths forGraph(Graph g) {
+        ShortestPaths sp = new ShortestPaths(FrontierType.forGraph(g));
+        if (g.size() > 0) {
+            sp.grow(g.size() - 1);
+        }
+        return sp;
+    }
+
+    /** Return the kind of frontier this instance uses. */
+    public FrontierType getFrontierType() {
+        return frontierType;
+    }
 
     /** Compute the shortest path to all nodes from origin using Dijkstra's
-     * algorithm. Fill in the paths field, which associates each Node with its
-     * PathData record, storing total distance from the source, and the
-     * backpointer to the previous node on the shortest path.
+     * algorithm, recording for each node reached its distance from the
+     * origin and the previous node on its shortest path. The per-node
+     * arrays are reused, so repeated calls on the same graph allocate
+     * nothing once they have grown to fit it.
      * Precondition: origin is a node in the Graph.*/
     public void compute(Node origin) {
-        paths = new HashMap<>();
-        Heap<Node,Double> h = new Heap<>();
+        start(origin);
+        run(0, Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+    }
 
-        h.add(origin,0.0);
-        paths.put(origin,new PathData(0.0,null));
+    /** Compute shortest paths from origin, stopping as soon as the shortest
+     * path to destination is known. Afterwards shortestPath and
+     * shortestPathLength give the same answers for destination as after
+     * compute(origin); nodes that were not settled before the search stopped
+     * are reported as unreachable.
+     * Precondition: origin is a node in the Graph. */
+    public void compute(Node origin, Node destination) {
+        start(origin);
+        markTarget(destination);
+        run(1, Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+    }
+
+    /** Compute shortest paths from origin, stopping as soon as the shortest
+     * paths to all of targets are known.
+     * Precondition: origin is a node in the Graph. */
+    public void computeTargets(Node origin, Collection<Node> targets) {
+        start(origin);
+        int count = 0;
+        for (Node t : targets) {
+            if (markTarget(t)) {
+                count++;
+            }
+        }
+        run(count, Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+    }
+
+    /** Compute shortest paths from origin to every node within distance
+     * radius of it. Nodes farther away are reported as unreachable.
+     * Precondition: origin is a node in the Graph. */
+    public void computeWithin(Node origin, double radius) {
+        start(origin);
+        run(0, radius, Integer.MAX_VALUE);
+    }
+
+    /** Compute shortest paths from origin to the k nodes nearest to it,
+     * counting origin itself. Other nodes are reported as unreachable. Ties
+     * at the k-th distance are broken arbitrarily.
+     * Precondition: origin is a node in the Graph, k >= 1. */
+    public void computeNearest(Node origin, int k) {
+        start(origin);
+        run(0, Double.POSITIVE_INFINITY, k);
+    }
+
+    /* Begin a new computation from origin: advance the epoch, which
+     * invalidates every per-node entry, and reset the frontier. */
+    private void start(Node origin) {
+        if (epoch == Integer.MAX_VALUE) {
+            // wrap around once every stamp has been cleared
+            Arrays.fill(discoveredIn, 0);
+            Arrays.fill(settledIn, 0);
+            Arrays.fill(targetIn, 0);
+            epoch = 0;
+        }
+        epoch++;
+        this.origin = origin;
+        discoveredCount = 0;
+        int i = indexOf(origin);
+        if (frontier == null) {
+            frontier = frontierType.create(Math.max(distance.length, 16));
+        } else {
+            frontier.clear();
+        }
+        discover(origin, i, 0.0, null);
+    }
+
+    /* Mark t as a target of the current computation. Return false if it
+     * was already marked. */
+    private boolean markTarget(Node t) {
+        int i = indexOf(t);
+        if (targetIn[i] == epoch) {
+            return false;
+        }
+        targetIn[i] = epoch;
+        return true;
+    }
+
+    /* Run Dijkstra's algorithm from the origin until the frontier is empty
+     * or a stopping condition holds: targetsLeft marked targets have been
+     * settled, the next node to settle is farther than radius, or limit
+     * nodes have been settled. Records a QueryEvent for Flight Recorder. */
+    private void run(int targetsLeft, double radius, int limit) {
+        QueryEvent event = new QueryEvent();
+        event.begin();
+        Frontier h = frontier;
+        int settledCount = 0;
+        // for Metrics; unused, and so compiled away, when it is disabled
+        long relaxed = 0;
+        long improved = 0;
+        int frontierPeak = h.size();
 
         while (h.size() > 0) {
-            Node f = h.poll();
-            boolean vHasNeighbor = !f.getNeighbors().isEmpty();
-
-            //Search through each neighbor w of f
-            if (vHasNeighbor) {
-                f.getNeighbors().forEach((w,value) -> {
-                    //Set variables for weight(distance) between f and w
-                    //and distance of f from origin
-                    double f_w_dist = value;
-                    double f_dist_origin = paths.get(f).distance;
-                    //Check if neighbor in frontier (heap) or settled set (paths)
-                    boolean inSorF = h.contains(w) || paths.containsKey(w);
-                    //Set distance from origin to w
-                    double w_dist_origin = f_w_dist + f_dist_origin;
-
-                    if (!inSorF) {
-                        //Add neighbor w to Frontier and paths
-                        paths.put(w,new PathData(w_dist_origin,f));
-                        h.add(w,w_dist_origin);
-                    /* If w already in F or paths, check if distance between origin and f
-                    and between f and w is less than w's existing distance from origin.
-                    If true, relax the distance between w and origin through f */
-                    } else if (w_dist_origin < paths.get(w).distance) {
-                        paths.get(w).distance = w_dist_origin;
-                        paths.get(w).previous = f;
-                        if(h.contains(w)){
-                            h.changePriority(w,w_dist_origin);
-                        }
-                    }
-                });
+            int v = h.poll();
+            double vDist = distance[v];
+
+            //Stop before settling v if it is beyond the radius; otherwise
+            //settle it and stop if it was the last target or the limit
+            if (vDist > radius) {
+                break;
+            }
+            settledIn[v] = epoch;
+            settledCount++;
+            if (targetIn[v] == epoch && --targetsLeft == 0) {
+                break;
+            }
+            if (settledCount == limit) {
+                break;
             }
+
+            //Search through each neighbor w of v
+            Node vNode = nodes[v];
+            Adjacency edges = vNode.neighbors();
+            for (int j = 0; j < edges.size(); j++) {
+                if (relax(vNode, edges.node(j), vDist + edges.weight(j))) {
+                    improved++;
+                }
+            }
+            relaxed += edges.size();
+            if (Metrics.ENABLED && h.size() > frontierPeak) {
+                frontierPeak = h.size();
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordQuery(settledCount, relaxed, improved,
+                    frontierPeak);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.origin = origin.toString();
+            event.frontier = frontierType.toString();
+            event.settled = settledCount;
+            event.commit();
         }
     }
 
+    /* Relax the edge from v, the node being settled, to w, which gives w
+     * distance wDist: add w to the frontier if it is newly reached, or
+     * lower its distance if the path through v is shorter. Return true if
+     * w's distance changed. */
+    private boolean relax(Node v, Node w, double wDist) {
+        int wi = w.getIndex();
+        if (wi >= discoveredIn.length) {
+            grow(wi);
+        }
+        if (discoveredIn[wi] != epoch) {
+            discover(w, wi, wDist, v);
+            return true;
+        } else if (wDist < distance[wi]) {
+            distance[wi] = wDist;
+            previous[wi] = v;
+            if (frontier.contains(wi)) {
+                frontier.changePriority(wi, wDist);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /* Record that node n, with index i, has been reached at distance dist
+     * via prev, and add it to the frontier. */
+    private void discover(Node n, int i, double dist, Node prev) {
+        discoveredIn[i] = epoch;
+        distance[i] = dist;
+        previous[i] = prev;
+        nodes[i] = n;
+        discovered[discoveredCount++] = n;
+        frontier.add(i, dist);
+    }
+
+    /* Return n's index, growing the per-node arrays to fit it.
+     * @throws IllegalArgumentException if n was not created by a Graph. */
+    private int indexOf(Node n) {
+        int i = n.getIndex();
+        if (i < 0) {
+            throw new IllegalArgumentException(
+                    "Node " + n + " does not belong to a Graph");
+        }
+        if (i >= discoveredIn.length) {
+            grow(i);
+        }
+        return i;
+    }
+
+    /* Grow the per-node arrays so that index i fits, at least doubling
+     * their length. */
+    private void grow(int i) {
+        int newLength = Math.max(i + 1, discoveredIn.length * 2);
+        discoveredIn = Arrays.copyOf(discoveredIn, newLength);
+        settledIn = Arrays.copyOf(settledIn, newLength);
+        targetIn = Arrays.copyOf(targetIn, newLength);
+        distance = Arrays.copyOf(distance, newLength);
+        previous = Arrays.copyOf(previous, newLength);
+        nodes = Arrays.copyOf(nodes, newLength);
+        discovered = Arrays.copyOf(discovered, newLength);
+    }
+
+    /* Return true if destination was settled by the current computation. */
+    private boolean isSettled(Node destination) {
+        int i = destination.getIndex();
+        return i >= 0 && i < settledIn.length && settledIn[i] == epoch
+            && nodes[i] == destination;
+    }
+
     /** Returns the length of the shortest path from the origin to destination.
      * If no path exists, return Double.POSITIVE_INFINITY.
      * Precondition: destination is a node in the graph, and compute(origin)
      * has been called. */
     public double shortestPathLength(Node destination) {
-        if (!paths.containsKey(destination)){
+        if (!isSettled(destination)) {
             return Double.POSITIVE_INFINITY;
-        } else return paths.get(destination).distance;
+        } else return distance[destination.getIndex()];
+    }
+
+    /** Returns the length of the shortest path from the origin to the node
+     * with the given index (see Node.getIndex and Graph.indexOf), or
+     * Double.POSITIVE_INFINITY if no path exists.
+     * Precondition: compute(origin) has been called. */
+    public double shortestPathLength(int index) {
+        if (index < 0 || index >= settledIn.length
+                || settledIn[index] != epoch) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return distance[index];
     }
 
     /** Returns a LinkedList of the nodes along the shortest path from origin
@@ -104,52 +362,64 @@ public class ShortestPaths {
      * has been called. */
     public LinkedList<Node> shortestPath(Node destination) {
         LinkedList<Node> pathToDest = new LinkedList<>();
-        //Get origin
 
-        if (!paths.containsKey(destination)) {
+        if (!isSettled(destination)) {
             return null;
         } else {
             Node current = destination;
 
             while (current != null){
                 pathToDest.addFirst(current);
-                PathData pd = paths.get(current);
-                current = pd.previous;
+                current = previous[current.getIndex()];
             }
         }
         return pathToDest;
     }
 
-
-    /** Inner class representing data used by Dijkstra's algorithm in the
-     * process of computing shortest paths from a given source node. */
-    class PathData {
-        double distance; // distance of the shortest path from source
-        Node previous; // previous node in the path from the source
-
-        /** constructor: initialize distance and previous node */
-        public PathData(double dist, Node prev) {
-            distance = dist;
-            previous = prev;
+    /** Return the paths to every node settled by the last computation as
+     * an immutable ShortestPathTree over graph, which stays valid after this
+     * object computes paths from another origin.
+     * Precondition: one of the compute methods has been called, and its
+     * origin is a node in graph. */
+    public ShortestPathTree toTree(Graph graph) {
+        int n = graph.size();
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        for (int j = 0; j < discoveredCount; j++) {
+            int i = discovered[j].getIndex();
+            if (settledIn[i] == epoch) {
+                dist[i] = distance[i];
+                if (previous[i] != null) {
+                    parent[i] = previous[i].getIndex();
+                }
+            }
         }
+        return new ShortestPathTree(graph, origin, dist, parent);
     }
 
     /** Static helper method to open and parse a file containing graph
      * information. Can parse either a basic file or a DB1B CSV file with
-     * flight data. See GraphParser, BasicParser, and DB1BParser for more.*/
+     * flight data; "db1b-mmap" parses a DB1B file with MappedDB1BParser on
+     * every core, which is much faster on large files, and "snapshot" loads
+     * a binary snapshot written by GraphSnapshot. See GraphParser, BasicParser,
+     * and DB1BParser for more.*/
     protected static Graph parseGraph(String fileType, String fileName) throws
         FileNotFoundException {
-        // create an appropriate parser for the given file type
-        GraphParser parser;
-        if (fileType.equals("basic")) {
-            parser = new BasicParser();
-        } else if (fileType.equals("db1b")) {
-            parser = new DB1BParser();
-        } else {
-            throw new IllegalArgumentException(
-                    "Unsupported file type: " + fileType);
+        if (fileType.equals("snapshot")) {
+            try {
+                return GraphSnapshot.loadGraph(new File(fileName));
+            } catch (FileNotFoundException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
 
+        // create an appropriate parser for the given file type
+        GraphParser parser = newParser(fileType);
+
         // open the given file
         parser.open(new File(fileName));
 
@@ -157,15 +427,182 @@ public class ShortestPaths {
         return parser.parse();
     }
 
+    /** Return a new parser for text files of the given type: "basic",
+     * "db1b" or "db1b-mmap". */
+    static GraphParser newParser(String fileType) {
+        if (fileType.equals("basic")) {
+            return new BasicParser();
+        } else if (fileType.equals("db1b")) {
+            return new DB1BParser();
+        } else if (fileType.equals("db1b-mmap")) {
+            return new MappedDB1BParser(
+                    Runtime.getRuntime().availableProcessors());
+        }
+        throw new IllegalArgumentException(
+                "Unsupported file type: " + fileType);
+    }
+
+    /* Compute paths from each origin in the comma-separated list origins
+     * (or every node, if origins is "all") on threads threads, and print
+     * each origin's table, or its path to destCode if that is not null, as
+     * soon as it is finished. */
+    private static void runBatch(Graph graph, FrontierType frontierType,
+            int threads, String origins, String destCode) {
+        ArrayList<Node> originNodes = new ArrayList<>();
+        if (origins.equals("all")) {
+            originNodes.addAll(graph.getNodes().values());
+        } else {
+            for (String code : origins.split(",")) {
+                Node n = graph.getNodes().get(code);
+                if (n == null) {
+                    System.out.println("Unknown origin " + code);
+                    return;
+                }
+                originNodes.add(n);
+            }
+        }
+        Node dest = destCode == null ? null : graph.getNodes().get(destCode);
+        if (destCode != null && dest == null) {
+            System.out.println("Unknown destination " + destCode);
+            return;
+        }
+
+        BatchShortestPaths batch = frontierType == null ?
+            new BatchShortestPaths(graph, threads) :
+            new BatchShortestPaths(graph, frontierType, threads);
+        batch.computeAll(originNodes, tree -> {
+            Node origin = tree.getOrigin();
+            if (dest != null) {
+                LinkedList<Node> path = tree.shortestPath(dest);
+                if (path == null) {
+                    System.out.println("There is no path from " + origin
+                            + " to " + dest);
+                } else {
+                    System.out.println(path.stream()
+                            .map(Object::toString)
+                            .collect(Collectors.joining("->"))
+                            + "\t" + tree.shortestPathLength(dest));
+                }
+                return;
+            }
+            System.out.println("Shortest paths from " + origin);
+            printTable(tree);
+        });
+    }
+
+    /* Load the snapshot in fileName as a CompactGraph and print the table
+     * of paths from origCode, or its path to destCode if that is not
+     * null. */
+    private static void runSnapshot(String fileName,
+            FrontierType frontierType, String origCode, String destCode) {
+        CompactGraph graph;
+        try {
+            graph = GraphSnapshot.load(new File(fileName));
+        } catch (FileNotFoundException e) {
+            System.out.println("Could not open file " + fileName);
+            return;
+        } catch (IOException e) {
+            System.out.println("Could not read snapshot: " + e.getMessage());
+            return;
+        }
+        graph.report();
+
+        int origin = graph.indexOf(origCode);
+        int dest = destCode == null ? -1 : graph.indexOf(destCode);
+        if (origin == -1 || (destCode != null && dest == -1)) {
+            System.out.println("Unknown node "
+                    + (origin == -1 ? origCode : destCode));
+            return;
+        }
+        CompactShortestPaths sp = new CompactShortestPaths(graph,
+                frontierType == null ? FrontierType.BINARY : frontierType);
+        sp.compute(origin);
+
+        if (destCode == null) {
+            System.out.print("Node\tDist-to-orgin\tPrevious\n");
+            for (int u = 0; u < graph.size(); u++) {
+                double d = sp.shortestPathLength(u);
+                if (d != Double.POSITIVE_INFINITY) {
+                    int p = sp.previous(u);
+                    System.out.println(graph.getId(u) + "\t\t\t" + d
+                            + "\t\t\t" + (p == -1 ? null : graph.getId(p)));
+                }
+            }
+            return;
+        }
+        double pathLength = sp.shortestPathLength(dest);
+        System.out.println("Shortest path from " + origCode + " to "
+                + destCode);
+        if (pathLength == Double.POSITIVE_INFINITY) {
+            System.out.println("There is no path from " + origCode + " to "
+                    + destCode);
+        } else {
+            System.out.print(sp.shortestPath(dest).stream()
+                    .map(Object::toString)
+                    .collect(Collectors.joining("->")));
+            System.out.println("\nPath Length: " + pathLength);
+        }
+    }
+
+    /* Print each node in tree with its distance and previous node. */
+    private static void printTable(ShortestPathTree tree) {
+        System.out.print("Node\tDist-to-orgin\tPrevious\n");
+        for (Node n : tree.getNodes()) {
+            System.out.println(n + "\t\t\t" + tree.shortestPathLength(n)
+                    + "\t\t\t" + tree.previous(n));
+        }
+    }
+
     public static void main(String[] args) {
-      // read command line args
-      String fileType = args[0];
-      String fileName = args[1];
-      String origCode = args[2];
+      if (Metrics.ENABLED) {
+          // print the counts however main returns
+          Runtime.getRuntime().addShutdownHook(new Thread(Metrics::report));
+      }
+      // read command line args. Options of the form --name=value may
+      // appear anywhere and are separated from the positional args
+      FrontierType frontierType = null;
+      double radius = Double.POSITIVE_INFINITY;
+      int nearest = Integer.MAX_VALUE;
+      String origins = null;
+      int threads = Runtime.getRuntime().availableProcessors();
+      ArrayList<String> positional = new ArrayList<>();
+      for (String arg : args) {
+          if (arg.startsWith("--frontier=")) {
+              frontierType = FrontierType.parse(
+                      arg.substring("--frontier=".length()));
+          } else if (arg.startsWith("--radius=")) {
+              radius = Double.parseDouble(
+                      arg.substring("--radius=".length()));
+          } else if (arg.startsWith("--nearest=")) {
+              nearest = Integer.parseInt(
+                      arg.substring("--nearest=".length()));
+          } else if (arg.startsWith("--origins=")) {
+              origins = arg.substring("--origins=".length());
+          } else if (arg.startsWith("--threads=")) {
+              threads = Integer.parseInt(
+                      arg.substring("--threads=".length()));
+          } else {
+              positional.add(arg);
+          }
+      }
+      String fileType = positional.get(0);
+      String fileName = positional.get(1);
+      // in batch mode the origins come from --origins instead
+      int destArg = origins == null ? 3 : 2;
+      String origCode = origins == null ? positional.get(2) : null;
 
       String destCode = null;
-      if (args.length == 4) {
-          destCode = args[3];
+      if (positional.size() == destArg + 1) {
+          destCode = positional.get(destArg);
+      }
+
+      // a snapshot can answer a single origin's queries without ever
+      // building a Graph
+      if (fileType.equals("snapshot") && origins == null
+              && radius == Double.POSITIVE_INFINITY
+              && nearest == Integer.MAX_VALUE) {
+          runSnapshot(fileName, frontierType, origCode, destCode);
+          return;
       }
 
       // parse a graph with the given type and filename
@@ -178,19 +615,27 @@ public class ShortestPaths {
       }
       graph.report();
 
-      ShortestPaths sp = new ShortestPaths();
+      if (origins != null) {
+          runBatch(graph, frontierType, threads, origins, destCode);
+          return;
+      }
+
+      // without a --frontier option, pick one suited to the graph's weights
+      ShortestPaths sp = frontierType == null ?
+          forGraph(graph) : new ShortestPaths(frontierType);
       Node origin = graph.getNode(origCode);
-      sp.compute(origin);
 
       if (destCode == null){
-          System.out.print("Node\tDist-to-orgin\tPrevious\n");
-          sp.paths.forEach((n, value) -> {
-              double distance = value.distance;
-              Node previous = value.previous;
-              System.out.println(n + "\t\t\t" + distance + "\t\t\t" + previous);
-          });
+          if (nearest < Integer.MAX_VALUE) {
+              sp.computeNearest(origin, nearest);
+          } else {
+              sp.computeWithin(origin, radius);
+          }
+          printTable(sp.toTree(graph));
       } else {
           Node dest = graph.getNode(destCode);
+          // stop searching once dest is settled
+          sp.compute(origin, dest);
           double pathLength = sp.shortestPathLength(dest);
           System.out.println("Shortest path from " + origin + " to " + dest);
 
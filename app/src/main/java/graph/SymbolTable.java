@@ -0,0 +1,140 @@
+package graph;
+
+import java.util.Arrays;
+
+/** A dictionary that interns node identifiers to dense int ids 0, 1, 2,
+ * ... in order of first appearance, so that nodes can be kept in arrays
+ * and compared as ints. IATA airport codes, three upper-case letters, are
+ * packed into an int below 26^3 and looked up directly in an array, with no
+ * hashing or String comparison; any other identifier, such as the ids in a
+ * BasicParser file, goes to an open-addressing fallback table. */
+public final class SymbolTable {
+
+    /** The number of distinct packable codes, AAA through ZZZ. */
+    static final int PACKED_CODES = 26 * 26 * 26;
+
+    private int[] packed; // 1 + the id of each packed code, or 0; lazy
+    private int[] slots; // 1 + the id of the fallback key in each slot, or 0
+    private int mask; // slots.length - 1
+    private int others; // number of ids in the fallback table
+    private String[] codes; // codes[id] is id's identifier
+    private int size;
+
+    /** Constructor: an empty dictionary. */
+    public SymbolTable() {
+        slots = new int[16];
+        mask = slots.length - 1;
+        codes = new String[16];
+    }
+
+    /** Return the number of identifiers interned so far. */
+    public int size() {
+        return size;
+    }
+
+    /** Return the identifier with the given id.
+     * Precondition: 0 <= id < size() */
+    public String code(int id) {
+        return codes[id];
+    }
+
+    /** Return a new array of every identifier, indexed by id. */
+    public String[] toArray() {
+        return Arrays.copyOf(codes, size);
+    }
+
+    /** Return the id of s, or -1 if it has not been interned. */
+    public int find(String s) {
+        int p = pack(s);
+        if (p >= 0) {
+            return packed == null ? -1 : packed[p] - 1;
+        }
+        for (int slot = slotOf(s); slots[slot] != 0;
+                slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (codes[id].equals(s)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /** Return the id of s, giving it the next id if it is new. */
+    public int intern(String s) {
+        int p = pack(s);
+        if (p >= 0) {
+            if (packed == null) {
+                packed = new int[PACKED_CODES];
+            }
+            if (packed[p] == 0) {
+                packed[p] = add(s) + 1;
+            }
+            return packed[p] - 1;
+        }
+        int slot = slotOf(s);
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (codes[id].equals(s)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = add(s);
+        slots[slot] = id + 1;
+        if (++others * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /** Return s packed into an int in 0..PACKED_CODES-1 if it is three
+     * upper-case ASCII letters, or -1 otherwise. */
+    static int pack(String s) {
+        if (s.length() != 3) {
+            return -1;
+        }
+        return pack(s.charAt(0), s.charAt(1), s.charAt(2));
+    }
+
+    /** Return the code made of the three characters a, b and c packed as
+     * by pack(String), or -1 if they are not all upper-case letters. */
+    static int pack(int a, int b, int c) {
+        a -= 'A';
+        b -= 'A';
+        c -= 'A';
+        if ((a | b | c) < 0 || a >= 26 || b >= 26 || c >= 26) {
+            return -1;
+        }
+        return (a * 26 + b) * 26 + c;
+    }
+
+    /* Append s as the next id and return it. */
+    private int add(String s) {
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, size * 2);
+        }
+        codes[size] = s;
+        return size++;
+    }
+
+    /* Return the fallback slot where the search for s begins. */
+    private int slotOf(String s) {
+        return OpenHashTable.spread(s.hashCode()) & mask;
+    }
+
+    /* Double the number of fallback slots and reinsert every key that is
+     * not packed. */
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            if (pack(codes[id]) < 0) {
+                int slot = slotOf(codes[id]);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = id + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package graph;
+
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Properties;
+
+/** Measures a scenario's wall time, the bytes it allocates on the calling
+ * thread and the peak heap in use while it runs, and checks them against
+ * the baselines in perf-baselines.properties. A scenario fails when any of
+ * them exceeds its baseline by more than the tolerance for that measure:
+ * by default 100% for time, which is noisy, and 25% for allocation and
+ * peak heap, plus a small allowance (50 ms, 64 KB, 16 MB) so that tiny
+ * baselines do not fail on noise. The tolerances can be changed with the
+ * system properties perf.tolerance.time, perf.tolerance.alloc and
+ * perf.tolerance.heap. Allocation is only counted on the calling thread, so
+ * scenarios should not hand work to other threads.
+ *
+ * With the system property perf.record=true nothing is checked; instead
+ * the measurements are added to perf-baselines.properties in perf.dir, to
+ * be copied over the recorded baselines. */
+final class PerfBudget {
+
+    /** A scenario to measure. */
+    interface Scenario {
+        void run() throws Exception;
+    }
+
+    private static final Properties baselines = new Properties();
+    static {
+        try (InputStream in = PerfBudget.class
+                .getResourceAsStream("/perf-baselines.properties")) {
+            if (in != null) {
+                baselines.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private PerfBudget() {
+    }
+
+    /** Return the directory for generated inputs and recorded baselines. */
+    static File dir() {
+        File dir = new File(System.getProperty("perf.dir", "build/perf"));
+        dir.mkdirs();
+        return dir;
+    }
+
+    /** Run scenario once to warm up, then measure a second run and check it
+     * against the baselines recorded under name. */
+    static void check(String name, Scenario scenario) throws Exception {
+        scenario.run();
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean)
+            ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        System.gc();
+        for (MemoryPoolMXBean pool :
+                ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        long allocStart = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        scenario.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long alloc = threads.getThreadAllocatedBytes(thread) - allocStart;
+        long peak = 0;
+        for (MemoryPoolMXBean pool :
+                ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("%s: %d ms, %d MB allocated, %d MB peak heap%n",
+                name, millis, alloc >> 20, peak >> 20);
+
+        if (Boolean.getBoolean("perf.record")) {
+            record(name, millis, alloc, peak);
+            return;
+        }
+        StringBuilder failures = new StringBuilder();
+        compare(failures, name, "wallMillis", millis, "time", 1.0, 50);
+        compare(failures, name, "allocatedBytes", alloc, "alloc", 0.25,
+                64 << 10);
+        compare(failures, name, "peakHeapBytes", peak, "heap", 0.25,
+                16 << 20);
+        if (failures.length() > 0) {
+            fail(name + " is over budget:" + failures);
+        }
+    }
+
+    /* Append a failure to failures if measured exceeds the baseline for
+     * name.key by more than the tolerance perf.tolerance.measure plus
+     * slack. */
+    private static void compare(StringBuilder failures, String name,
+            String key, long measured, String measure, double tolerance,
+            long slack) {
+        String baseline = baselines.getProperty(name + "." + key);
+        if (baseline == null) {
+            failures.append("\n  no baseline for ").append(key);
+            return;
+        }
+        tolerance = Double.parseDouble(System.getProperty(
+                    "perf.tolerance." + measure, "" + tolerance));
+        long limit = (long) (Long.parseLong(baseline) * (1 + tolerance))
+            + slack;
+        if (measured > limit) {
+            failures.append("\n  ").append(key).append(' ')
+                .append(measured).append(" > ").append(limit)
+                .append(" (baseline ").append(baseline).append(')');
+        }
+    }
+
+    /* Add the measurements of name to the recorded baselines file. */
+    private static synchronized void record(String name, long millis,
+            long alloc, long peak) throws IOException {
+        File f = new File(dir(), "perf-baselines.properties");
+        Properties recorded = new Properties();
+        if (f.exists()) {
+            try (InputStream in = new FileInputStream(f)) {
+                recorded.load(in);
+            }
+        }
+        recorded.setProperty(name + ".wallMillis", "" + millis);
+        recorded.setProperty(name + ".allocatedBytes", "" + alloc);
+        recorded.setProperty(name + ".peakHeapBytes", "" + peak);
+        try (OutputStream out = new FileOutputStream(f)) {
+            recorded.store(out, "recorded by perfTest");
+        }
+    }
+}
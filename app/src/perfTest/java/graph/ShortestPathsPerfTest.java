@@ -0,0 +1,134 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Performance regression scenarios on large generated graphs; see
+ * PerfBudget. Inputs are written by GraphGenerator into perf.dir the first
+ * time they are needed and reused afterwards. */
+public class ShortestPathsPerfTest {
+
+    private static File powerLaw; // 200k nodes, 2M edges, basic format
+    private static File random; // 200k nodes, 800k edges, basic format
+    private static File db1b; // 400 airports, 2M rows
+
+    @BeforeClass
+    public static void generate() throws IOException {
+        powerLaw = generate("powerlaw", "basic", 200_000, 2_000_000);
+        random = generate("random", "basic", 200_000, 800_000);
+        db1b = generate("db1b", "db1b", 400, 2_000_000);
+    }
+
+    /* Return the generated file for these arguments, writing it if it does
+     * not exist yet. */
+    private static File generate(String shape, String format, int nodes,
+            long edges) throws IOException {
+        File f = new File(PerfBudget.dir(), shape + "-" + nodes + "-"
+                + edges + "." + format);
+        if (!f.exists()) {
+            File tmp = new File(f.getPath() + ".tmp");
+            try (Writer out = new BufferedWriter(new FileWriter(tmp))) {
+                new GraphGenerator(GraphGenerator.Shape.parse(shape), nodes,
+                        edges, 42).write(out, format);
+            }
+            assertTrue(tmp.renameTo(f));
+        }
+        return f;
+    }
+
+    @Test
+    public void parseBasic() throws Exception {
+        PerfBudget.check("parseBasic", () -> {
+            Graph g = ShortestPaths.parseGraph("basic", powerLaw.getPath());
+            assertTrue(g.size() > 190_000);
+        });
+    }
+
+    @Test
+    public void parseDB1B() throws Exception {
+        PerfBudget.check("parseDB1B", () -> {
+            Graph g = ShortestPaths.parseGraph("db1b", db1b.getPath());
+            assertEquals(400, g.size());
+        });
+    }
+
+    @Test
+    public void parseDB1BMapped() throws Exception {
+        // one thread, since PerfBudget only counts the calling thread's
+        // allocation and db1b-mmap would use one thread per core
+        PerfBudget.check("parseDB1BMapped", () -> {
+            MappedDB1BParser parser = new MappedDB1BParser(1);
+            parser.open(db1b);
+            assertEquals(400, parser.parse().size());
+        });
+    }
+
+    @Test
+    public void computeAll() throws Exception {
+        Graph g = ShortestPaths.parseGraph("basic", random.getPath());
+        ShortestPaths sp = ShortestPaths.forGraph(g);
+        PerfBudget.check("computeAll", () -> {
+            Random rand = new Random(1);
+            for (int i = 0; i < 10; i++) {
+                sp.compute(g.getNode(rand.nextInt(g.size())));
+            }
+        });
+    }
+
+    @Test
+    public void computeAllHeapFrontier() throws Exception {
+        // the generic Heap and OpenHashTable behind FrontierType.HEAP
+        Graph g = ShortestPaths.parseGraph("basic", random.getPath());
+        ShortestPaths sp = new ShortestPaths(FrontierType.HEAP);
+        PerfBudget.check("computeAllHeapFrontier", () -> {
+            Random rand = new Random(1);
+            for (int i = 0; i < 5; i++) {
+                sp.compute(g.getNode(rand.nextInt(g.size())));
+            }
+        });
+    }
+
+    @Test
+    public void pointToPoint() throws Exception {
+        Graph g = ShortestPaths.parseGraph("basic", powerLaw.getPath());
+        ShortestPaths sp = ShortestPaths.forGraph(g);
+        PerfBudget.check("pointToPoint", () -> {
+            Random rand = new Random(2);
+            for (int i = 0; i < 40; i++) {
+                Node origin = g.getNode(rand.nextInt(g.size()));
+                Node dest = g.getNode(rand.nextInt(g.size()));
+                sp.compute(origin, dest);
+                sp.shortestPath(dest);
+            }
+        });
+    }
+
+    @Test
+    public void hashTable() throws Exception {
+        String[] keys = new String[1_000_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "K" + i;
+        }
+        PerfBudget.check("hashTable", () -> {
+            HashTable<String,Integer> t = new HashTable<>();
+            for (int i = 0; i < keys.length; i++) {
+                t.put(keys[i], i);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                assertEquals(i, (int) t.get(keys[i]));
+            }
+            for (String k : keys) {
+                t.remove(k);
+            }
+        });
+    }
+}
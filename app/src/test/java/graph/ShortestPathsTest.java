@@ -7,11 +7,33 @@ import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
 import java.net.URL;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.management.JMX;
+import javax.management.ObjectName;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
@@ -333,4 +355,1190 @@ public class ShortestPathsTest {
         printShortestPath(abPath);
     }
 
+    @Test
+    //Test that Dijkstra on a CompactGraph agrees with ShortestPaths on Graph
+    public void test13CompactGraph() {
+        for (String fn : List.of("Simple1.txt", "Simple2.txt", "FakeCanada.txt", "Test4.txt")) {
+            Graph g = loadBasicGraph(fn);
+            CompactGraph cg = new CompactGraph(g);
+            assertEquals(g.getNodes().size(), cg.size());
+            for (Node origin : g.getNodes().values()) {
+                ShortestPaths sp = new ShortestPaths();
+                sp.compute(origin);
+                CompactShortestPaths csp = new CompactShortestPaths(cg);
+                csp.compute(origin);
+                for (Node dest : g.getNodes().values()) {
+                    assertEquals(sp.shortestPathLength(dest), csp.shortestPathLength(dest), 1e-6);
+                    LinkedList<Node> path = csp.shortestPath(dest);
+                    if (path != null) {
+                        assertEquals(origin, path.getFirst());
+                        assertEquals(dest, path.getLast());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    //Test that duplicate edges given to CompactGraph.fromEdges keep the last weight
+    public void test14CompactGraphDuplicates() {
+        String[] origs = {"A", "A", "B", "A"};
+        String[] dests = {"B", "C", "C", "B"};
+        double[] weights = {5, 2, 1, 1};
+        CompactGraph cg = CompactGraph.fromEdges(origs, dests, weights, 4);
+        assertEquals(3, cg.size());
+        assertEquals(3, cg.edgeCount());
+        CompactShortestPaths csp = new CompactShortestPaths(cg);
+        csp.compute(cg.indexOf("A"));
+        assertEquals(1.0, csp.shortestPathLength(cg.indexOf("B")), 1e-6);
+        assertEquals(2.0, csp.shortestPathLength(cg.indexOf("C")), 1e-6);
+        assertEquals(List.of("A","B"),csp.shortestPath(cg.indexOf("B")).stream().map(Node::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    //Test that every frontier type gives the same path lengths
+    public void test15FrontierTypes() {
+        for (String fn : List.of("Simple2.txt", "FakeCanada.txt", "Test4.txt")) {
+            Graph g = loadBasicGraph(fn);
+            for (Node origin : g.getNodes().values()) {
+                ShortestPaths expected = new ShortestPaths();
+                expected.compute(origin);
+                for (FrontierType type : FrontierType.values()) {
+                    ShortestPaths sp = new ShortestPaths(type);
+                    sp.compute(origin);
+                    for (Node dest : g.getNodes().values()) {
+                        assertEquals(type.toString(), expected.shortestPathLength(dest), sp.shortestPathLength(dest), 1e-6);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    //Test that integer-weighted graphs pick the bucket queue and agree with the binary heap
+    public void test16BucketQueue() {
+        Graph g = loadBasicGraph("FakeCanada.txt");
+        assertTrue(g.hasIntegerWeights());
+        ShortestPaths sp = ShortestPaths.forGraph(g);
+        assertEquals(FrontierType.BUCKET, sp.getFrontierType());
+        Node yul = g.getNode("YUL");
+        Node yvr = g.getNode("YVR");
+        sp.compute(yul);
+        assertEquals(List.of("YUL","YOW","YYZ","YYC","YVR"),sp.shortestPath(yvr).stream().map(Node::getId).collect(Collectors.toList()));
+        assertEquals(2423, sp.shortestPathLength(yvr), 1e-6);
+
+        g.addEdge(yul, yvr, 2500.5);
+        assertFalse(g.hasIntegerWeights());
+        assertEquals(FrontierType.BINARY, ShortestPaths.forGraph(g).getFrontierType());
+    }
+
+    @Test
+    //Test that stopping at a destination gives the same answer as a full search
+    public void test17StopAtDestination() {
+        Graph g = loadBasicGraph("Simple2.txt");
+        ShortestPaths sp = new ShortestPaths();
+        Node d = g.getNode("D");
+        Node c = g.getNode("C");
+        sp.compute(d, c);
+        assertEquals(List.of("D","A","E","F","C"),sp.shortestPath(c).stream().map(Node::getId).collect(Collectors.toList()));
+        assertEquals(11, sp.shortestPathLength(c), 1e-6);
+
+        Node gNode = g.getNode("G");
+        Node e = g.getNode("E");
+        sp.computeTargets(d, List.of(gNode, e));
+        assertEquals(12, sp.shortestPathLength(gNode), 1e-6);
+        assertEquals(5, sp.shortestPathLength(e), 1e-6);
+    }
+
+    @Test
+    //Test radius and k-nearest queries on FakeCanada
+    public void test18RadiusAndNearest() {
+        Graph g = loadBasicGraph("FakeCanada.txt");
+        ShortestPaths sp = new ShortestPaths();
+        Node yul = g.getNode("YUL");
+        Node yyz = g.getNode("YYZ");
+        Node yyc = g.getNode("YYC");
+        sp.computeWithin(yul, 500);
+        assertEquals(320, sp.shortestPathLength(yyz), 1e-6);
+        assertEquals(List.of("YUL","YOW","YYZ"),sp.shortestPath(yyz).stream().map(Node::getId).collect(Collectors.toList()));
+        assertEquals(Double.POSITIVE_INFINITY, sp.shortestPathLength(yyc), 1e-6);
+        assertNull(sp.shortestPath(yyc));
+
+        sp.computeNearest(yul, 2);
+        assertEquals(94, sp.shortestPathLength(g.getNode("YOW")), 1e-6);
+        assertEquals(Double.POSITIVE_INFINITY, sp.shortestPathLength(yyz), 1e-6);
+    }
+
+    @Test
+    //Test that bidirectional search agrees with ShortestPaths for every pair of nodes
+    public void test19Bidirectional() {
+        for (String fn : List.of("Simple1.txt", "Simple2.txt", "FakeCanada.txt", "Test2.txt", "Test4.txt")) {
+            Graph g = loadBasicGraph(fn);
+            BidirectionalShortestPaths bsp = new BidirectionalShortestPaths();
+            for (Node origin : g.getNodes().values()) {
+                ShortestPaths sp = new ShortestPaths();
+                sp.compute(origin);
+                for (Node dest : g.getNodes().values()) {
+                    bsp.compute(origin, dest);
+                    assertEquals(sp.shortestPathLength(dest), bsp.shortestPathLength(), 1e-6);
+                    LinkedList<Node> path = bsp.shortestPath();
+                    if (sp.shortestPath(dest) == null) {
+                        assertNull(path);
+                    } else {
+                        assertEquals(origin, path.getFirst());
+                        assertEquals(dest, path.getLast());
+                    }
+                }
+            }
+        }
+        Graph g = loadBasicGraph("Test4.txt");
+        BidirectionalShortestPaths bsp = new BidirectionalShortestPaths();
+        bsp.compute(g.getNode("A"), g.getNode("P"));
+        assertEquals(List.of("A","E","I","M","N","J","K","O","P"),bsp.shortestPath().stream().map(Node::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    //Test that ALT queries agree with Dijkstra, including after saving and loading landmarks
+    public void test20Alt() throws IOException {
+        for (String fn : List.of("Simple2.txt", "FakeCanada.txt", "Test2.txt", "Test4.txt")) {
+            Graph g = loadBasicGraph(fn);
+            CompactGraph cg = new CompactGraph(g);
+            Landmarks lm = Landmarks.select(cg, Math.min(3, cg.size()), 0);
+            File f = File.createTempFile("landmarks", ".alt");
+            f.deleteOnExit();
+            lm.save(f);
+            for (Landmarks l : List.of(lm, Landmarks.load(f, cg))) {
+                AltShortestPaths alt = new AltShortestPaths(cg, l);
+                CompactShortestPaths csp = new CompactShortestPaths(cg);
+                for (int o = 0; o < cg.size(); o++) {
+                    csp.compute(o);
+                    for (int d = 0; d < cg.size(); d++) {
+                        alt.compute(o, d);
+                        assertEquals(csp.shortestPathLength(d), alt.shortestPathLength(), 1e-6);
+                        assertEquals(csp.shortestPath(d) == null, alt.shortestPath() == null);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    //Test that contraction hierarchy queries agree with Dijkstra and unpack to real paths
+    public void test21ContractionHierarchy() {
+        for (String fn : List.of("Simple1.txt", "Simple2.txt", "FakeCanada.txt", "Test2.txt", "Test3.txt", "Test4.txt")) {
+            Graph g = loadBasicGraph(fn);
+            ContractionHierarchy ch = ContractionHierarchy.build(g);
+            CHShortestPaths chsp = new CHShortestPaths(ch);
+            for (Node origin : g.getNodes().values()) {
+                ShortestPaths sp = new ShortestPaths();
+                sp.compute(origin);
+                for (Node dest : g.getNodes().values()) {
+                    chsp.compute(origin, dest);
+                    assertEquals(sp.shortestPathLength(dest), chsp.shortestPathLength(), 1e-6);
+                    LinkedList<Node> path = chsp.shortestPath();
+                    if (path == null) {
+                        assertNull(sp.shortestPath(dest));
+                        continue;
+                    }
+                    assertEquals(origin, path.getFirst());
+                    assertEquals(dest, path.getLast());
+                    double length = 0;
+                    for (int i = 0; i + 1 < path.size(); i++) {
+                        length += path.get(i).getNeighbors().get(path.get(i + 1));
+                    }
+                    assertEquals(sp.shortestPathLength(dest), length, 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    //Test that parallel batch trees match sequential runs and the graph is frozen
+    public void test22Batch() {
+        for (String fn : List.of("Simple2.txt", "FakeCanada.txt", "Test3.txt", "Test4.txt")) {
+            Graph g = loadBasicGraph(fn);
+            List<Node> origins = new ArrayList<>(g.getNodes().values());
+            BatchShortestPaths batch = new BatchShortestPaths(g, 4);
+            assertTrue(g.isFrozen());
+            List<ShortestPathTree> trees = batch.computeAll(origins);
+            assertEquals(origins.size(), trees.size());
+            ShortestPaths sp = new ShortestPaths();
+            for (int i = 0; i < origins.size(); i++) {
+                Node origin = origins.get(i);
+                ShortestPathTree tree = trees.get(i);
+                assertEquals(origin, tree.getOrigin());
+                sp.compute(origin);
+                for (Node dest : g.getNodes().values()) {
+                    assertEquals(sp.shortestPathLength(dest), tree.shortestPathLength(dest), 1e-6);
+                    assertEquals(sp.shortestPath(dest) == null, tree.shortestPath(dest) == null);
+                }
+            }
+            int[] streamed = {0};
+            batch.computeAll(origins, tree -> streamed[0]++);
+            assertEquals(origins.size(), streamed[0]);
+
+            Node a = origins.get(0);
+            try {
+                g.addEdge(a, a, 1);
+                fail("frozen graph accepted an edge");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    //Test that one ShortestPaths reused across many queries matches fresh instances
+    public void test23ReusedWorkspace() {
+        Graph g = loadBasicGraph("FakeCanada.txt");
+        ShortestPaths reused = new ShortestPaths();
+        for (Node origin : g.getNodes().values()) {
+            for (Node dest : g.getNodes().values()) {
+                // leave stale entries behind with an early stop
+                reused.computeNearest(dest, 2);
+                reused.compute(origin, dest);
+                ShortestPaths fresh = new ShortestPaths();
+                fresh.compute(origin);
+                assertEquals(fresh.shortestPathLength(dest), reused.shortestPathLength(dest), 1e-6);
+                assertEquals(fresh.shortestPath(dest), reused.shortestPath(dest));
+            }
+            reused.compute(origin);
+            ShortestPathTree tree = reused.toTree(g);
+            for (Node n : g.getNodes().values()) {
+                assertEquals(reused.shortestPathLength(n), tree.shortestPathLength(n), 1e-6);
+            }
+        }
+        for (Node n : g.getNodes().values()) {
+            assertEquals(n, g.getNodes().values().stream()
+                    .filter(m -> m.getIndex() == n.getIndex()).findFirst().get());
+        }
+        // nodes from another graph, or from no graph, have no index here
+        Node a = g.getNodes().values().iterator().next();
+        Node other = new Graph().getNode(a.getId());
+        for (Node foreign : new Node[] {other, new Node("X")}) {
+            try {
+                g.addEdge(a, foreign, 1);
+                fail("edge to a foreign node was added");
+            } catch (IllegalArgumentException e) {
+            }
+            try {
+                g.addEdge(foreign, a, 1);
+                fail("edge from a foreign node was added");
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+
+    @Test
+    //Test cache hits, LRU eviction and invalidation when the graph changes
+    public void test24PathCache() {
+        Graph g = loadBasicGraph("FakeCanada.txt");
+        List<Node> nodes = new ArrayList<>(g.getNodes().values());
+        ShortestPathCache cache = new ShortestPathCache(g, 2);
+        ShortestPaths sp = new ShortestPaths();
+        for (Node origin : nodes) {
+            sp.compute(origin);
+            for (Node dest : nodes) {
+                assertEquals(sp.shortestPathLength(dest), cache.shortestPathLength(origin, dest), 1e-6);
+                assertEquals(sp.shortestPath(dest), cache.shortestPath(origin, dest));
+            }
+        }
+        assertEquals(nodes.size(), cache.misses());
+        assertEquals(2 * nodes.size() * nodes.size() - nodes.size(), cache.hits());
+        assertEquals(2, cache.size());
+        assertEquals(nodes.size() - 2, cache.evictions());
+
+        // the least recently used tree is evicted first
+        Node a = nodes.get(0);
+        Node b = nodes.get(1);
+        Node c = nodes.get(2);
+        cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+        long misses = cache.misses();
+        cache.get(a);
+        assertEquals(misses, cache.misses());
+        cache.get(b);
+        assertEquals(misses + 1, cache.misses());
+
+        // a memory bound keeps only the most recent tree
+        ShortestPathCache small = new ShortestPathCache(g, 10, 1);
+        small.get(a);
+        small.get(b);
+        assertEquals(1, small.size());
+
+        // a changed edge drops every tree; an unchanged one does not
+        Node d = a.getNeighbors().keySet().iterator().next();
+        double before = cache.shortestPathLength(a, d);
+        g.addEdge(a, d, a.getNeighbors().get(d));
+        cache.get(a);
+        assertEquals(0, cache.invalidations());
+        g.addEdge(a, d, 0.5);
+        assertEquals(0.5, cache.shortestPathLength(a, d), 1e-9);
+        assertEquals(1, cache.invalidations());
+        assertTrue(before >= 0.5);
+    }
+
+    @Test
+    //Test that the memory-mapped DB1B parser builds the same graph as DB1BParser
+    public void test25MappedDB1BParser() throws IOException {
+        File f = File.createTempFile("db1b", ".csv");
+        f.deleteOnExit();
+        StringBuilder csv = new StringBuilder("\"ItinID\",\"Origin\",\"Dest\",\"Distance\",\"Extra\"\r\n");
+        String[] codes = {"JFK", "LAX", "ORD", "SFO", "\"BOS\"", "SEA"};
+        String[] miles = {"2475.00", "740", "0.1", "1234.5678", "1e3", "007", "3.25", "99999.99"};
+        Random rand = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            csv.append(i).append(',')
+                .append(codes[rand.nextInt(codes.length)]).append(',')
+                .append(codes[rand.nextInt(codes.length)]).append(',')
+                .append(miles[rand.nextInt(miles.length)]).append(",x")
+                .append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        csv.append("300,ATL,JFK,760.00,y");
+        Files.writeString(f.toPath(), csv);
+
+        DB1BParser scanner = new DB1BParser();
+        scanner.open(f);
+        Graph expected = scanner.parse();
+        for (int threads = 1; threads <= 4; threads++) {
+            MappedDB1BParser mapped = new MappedDB1BParser(threads, DuplicatePolicy.LAST,
+                    threads == 1 ? 1 << 20 : 64);
+            mapped.open(f);
+            Graph g = mapped.parse();
+            assertEquals(expected.size(), g.size());
+            for (Node n : expected.getNodes().values()) {
+                Node m = g.getNodes().get(n.getId());
+                assertEquals(n.getIndex(), m.getIndex());
+                assertEquals(n.getNeighbors().size(), m.getNeighbors().size());
+                n.getNeighbors().forEach((w, d) ->
+                        assertEquals(d, m.getNeighbors().get(g.getNodes().get(w.getId()))));
+            }
+        }
+    }
+
+    @Test
+    //Test that both DB1B parsers combine duplicate routes with each policy
+    public void test26DuplicatePolicy() throws IOException {
+        File f = File.createTempFile("db1b", ".csv");
+        f.deleteOnExit();
+        StringBuilder csv = new StringBuilder("Origin,Dest,Distance\n");
+        Map<String, List<Double>> rows = new HashMap<>();
+        Random rand = new Random(5);
+        for (int i = 0; i < 500; i++) {
+            String orig = "A" + rand.nextInt(5);
+            String dest = "B" + rand.nextInt(5);
+            double miles = 1 + rand.nextInt(100);
+            csv.append(orig).append(',').append(dest).append(',').append(miles).append('\n');
+            rows.computeIfAbsent(orig + dest, k -> new ArrayList<>()).add(miles);
+        }
+        Files.writeString(f.toPath(), csv);
+
+        for (DuplicatePolicy policy : DuplicatePolicy.values()) {
+            DB1BParser scanner = new DB1BParser(policy);
+            scanner.open(f);
+            MappedDB1BParser mapped = new MappedDB1BParser(3, policy, 256);
+            mapped.open(f);
+            for (Graph g : List.of(scanner.parse(), mapped.parse())) {
+                int edges = 0;
+                for (Node n : g.getNodes().values()) {
+                    edges += n.getNeighbors().size();
+                    n.getNeighbors().forEach((w, d) -> {
+                        List<Double> all = rows.get(n.getId() + w.getId());
+                        double expected = all.get(all.size() - 1);
+                        double sum = 0;
+                        for (double x : all) {
+                            sum += x;
+                            if (policy == DuplicatePolicy.MIN) {
+                                expected = Math.min(expected, x);
+                            } else if (policy == DuplicatePolicy.MAX) {
+                                expected = Math.max(expected, x);
+                            }
+                        }
+                        if (policy == DuplicatePolicy.FIRST) {
+                            expected = all.get(0);
+                        } else if (policy == DuplicatePolicy.MEAN) {
+                            expected = sum / all.size();
+                        } else if (policy == DuplicatePolicy.COUNT) {
+                            expected = all.size();
+                        }
+                        assertEquals(expected, d, 1e-9);
+                    });
+                }
+                assertEquals(rows.size(), edges);
+            }
+        }
+
+        // maxLines stops after that many rows
+        DB1BParser limited = new DB1BParser(DuplicatePolicy.COUNT);
+        limited.open(f);
+        Graph g = limited.parse(10);
+        double total = 0;
+        for (Node n : g.getNodes().values()) {
+            for (double count : n.getNeighbors().values()) {
+                total += count;
+            }
+        }
+        assertEquals(10, total, 0.0);
+    }
+
+    @Test
+    //Test that a graph survives a round trip through a snapshot and that
+    //a corrupted snapshot is rejected
+    public void test27GraphSnapshot() throws IOException {
+        Graph g = loadBasicGraph("FakeCanada.txt");
+        File f = File.createTempFile("graph", ".snap");
+        f.deleteOnExit();
+        GraphSnapshot.write(g, f);
+
+        CompactGraph cg = GraphSnapshot.load(f);
+        Graph loaded = ShortestPaths.parseGraph("snapshot", f.getPath());
+        assertEquals(g.size(), cg.size());
+        assertEquals(g.size(), loaded.size());
+        CompactShortestPaths csp = new CompactShortestPaths(cg);
+        for (Node origin : g.getNodes().values()) {
+            ShortestPaths sp = new ShortestPaths();
+            sp.compute(origin);
+            ShortestPaths lsp = new ShortestPaths();
+            lsp.compute(loaded.getNode(origin.getId()));
+            csp.compute(cg.indexOf(origin.getId()));
+            for (Node n : g.getNodes().values()) {
+                double d = sp.shortestPathLength(n);
+                assertEquals(d, lsp.shortestPathLength(
+                            loaded.getNode(n.getId())), 1e-9);
+                assertEquals(d, csp.shortestPathLength(
+                            cg.indexOf(n.getId())), 1e-9);
+            }
+        }
+
+        // flip one byte of the payload
+        byte[] bytes = Files.readAllBytes(f.toPath());
+        bytes[bytes.length - 3] ^= 1;
+        Files.write(f.toPath(), bytes);
+        try {
+            GraphSnapshot.load(f);
+            fail("corrupt snapshot was loaded");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Checksum"));
+        }
+
+        // a snapshot with a valid checksum but indexes out of range: the
+        // first string offset past the string table, a nonzero first edge
+        // offset, and an edge to node n
+        GraphSnapshot.write(g, f);
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(f.toPath()))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        int n = header.getInt(8);
+        int stringBytes = header.getInt(16);
+        int edgeOffsets = 32 + 4 * (n + 1) + (stringBytes + 7) / 8 * 8;
+        int[][] corruptions = {{32 + 4, stringBytes + 1}, {edgeOffsets, 1},
+            {edgeOffsets + 4 * (n + 1), n}};
+        for (int[] c : corruptions) {
+            GraphSnapshot.write(g, f);
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(f.toPath()))
+                .order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(c[0], c[1]);
+            CRC32C crc = new CRC32C();
+            crc.update(buf.array(), 32, buf.capacity() - 32);
+            buf.putLong(24, crc.getValue());
+            Files.write(f.toPath(), buf.array());
+            try {
+                GraphSnapshot.load(f);
+                fail("snapshot with a bad index was loaded");
+            } catch (IOException e) {
+                assertFalse(e.getMessage().contains("Checksum"));
+            }
+        }
+    }
+
+    @Test
+    //Test that every EdgeSink builds the same graph as parse()
+    public void test28EdgeSinks() throws IOException {
+        File f = File.createTempFile("db1b", ".csv");
+        f.deleteOnExit();
+        StringBuilder csv = new StringBuilder("\"Origin\",\"Dest\",\"Distance\"\n");
+        Random rand = new Random(7);
+        for (int i = 0; i < 3000; i++) {
+            csv.append("\"A").append(rand.nextInt(40)).append("\",\"A")
+                .append(rand.nextInt(40)).append("\",")
+                .append(1 + rand.nextInt(500)).append('\n');
+        }
+        Files.writeString(f.toPath(), csv);
+        String basic = getGraphResource("FakeCanada.txt");
+
+        for (String[] input : new String[][] {{"basic", basic},
+                {"db1b", f.getPath()}, {"db1b-mmap", f.getPath()}}) {
+            Graph expected = ShortestPaths.parseGraph(input[0], input[1]);
+            GraphSink graphSink = new GraphSink();
+            CompactGraphSink compactSink = new CompactGraphSink();
+            AggregatingSink aggregatingSink = new AggregatingSink();
+            for (EdgeSink sink : List.<EdgeSink>of(graphSink, compactSink,
+                        aggregatingSink)) {
+                GraphParser parser = ShortestPaths.newParser(input[0]);
+                parser.open(new File(input[1]));
+                parser.parse(sink);
+            }
+            List<CompactGraph> graphs = List.of(
+                    new CompactGraph(graphSink.getGraph()),
+                    compactSink.getGraph(), aggregatingSink.toCompactGraph(),
+                    new CompactGraph(aggregatingSink.toGraph()));
+            CompactGraph want = new CompactGraph(expected);
+            for (CompactGraph cg : graphs) {
+                assertEquals(want.size(), cg.size());
+                assertEquals(want.edgeCount(), cg.edgeCount());
+                for (int u = 0; u < want.size(); u++) {
+                    assertEquals(want.getId(u), cg.getId(u));
+                    Map<Integer,Double> edges =
+                        new HashMap<>();
+                    for (int e = want.edgeStart(u); e < want.edgeEnd(u); e++) {
+                        edges.put(want.target(e), want.weight(e));
+                    }
+                    for (int e = cg.edgeStart(u); e < cg.edgeEnd(u); e++) {
+                        assertEquals(edges.get(cg.target(e)), cg.weight(e),
+                                0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    //Test that SymbolTable and AirportCodes give packed three-letter
+    //codes and other ids the same dense ids in order of appearance
+    public void test29SymbolTable() {
+        String[] codes = {"ORD", "sfo", "ZZZ", "AAA", "N1", "ORD", "A-B",
+            "LONGNAME", "AAA", "ABCD", "N1", "ZZ"};
+        SymbolTable symbols = new SymbolTable();
+        AirportCodes bytes = new AirportCodes();
+        Map<String,Integer> expected = new HashMap<>();
+        for (String c : codes) {
+            expected.putIfAbsent(c, expected.size());
+            int id = symbols.intern(c);
+            assertEquals((int) expected.get(c), id);
+            assertEquals(id, symbols.find(c));
+            assertEquals(c, symbols.code(id));
+            ByteBuffer buf = ByteBuffer.wrap(
+                    ("," + c + ",").getBytes());
+            assertEquals(id, bytes.intern(buf, 1, 1 + c.length()));
+        }
+        assertEquals(expected.size(), symbols.size());
+        assertEquals(expected.size(), bytes.size());
+        assertEquals(-1, symbols.find("XYZ"));
+        assertEquals(-1, symbols.find("nope"));
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(expected.size() + i, symbols.intern("K" + i));
+        }
+        assertEquals(2, symbols.find("ZZZ"));
+        assertEquals(expected.size() + 4321, symbols.find("K4321"));
+
+        // a Graph's indexes are its symbol ids, and its node map is a view
+        Graph g = new Graph();
+        g.getNode("ORD");
+        g.getNode("node7");
+        g.addEdge(0, 1, 3.0);
+        assertEquals(1, g.indexOf("node7"));
+        assertEquals(-1, g.indexOf("LAX"));
+        assertEquals(3.0, g.getNode("ORD").getNeighbors()
+                .get(g.getNode("node7")), 0.0);
+        assertTrue(g.getNodes().containsKey("ORD"));
+        assertNull(g.getNodes().get("LAX"));
+        assertEquals(List.of("ORD", "node7"),
+                new ArrayList<>(g.getNodes().keySet()));
+        g.getNode("LAX");
+        assertEquals(3, g.getNodes().size());
+        assertEquals(g.getNode(2), g.getNodes().get("LAX"));
+    }
+
+    @Test
+    //Test that a node's array-backed neighbors behave like a map below
+    //and above the degree at which they are indexed
+    public void test30Adjacency() {
+        Graph g = new Graph();
+        Node hub = g.getNode("HUB");
+        Map<Node,Double> expected = new LinkedHashMap<>();
+        Random rand = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            Node w = g.getNode("N" + rand.nextInt(100));
+            double d = rand.nextInt(50);
+            Double old = expected.put(w, d);
+            assertEquals(old, hub.addNeighbor(w, d));
+            if (i % 97 == 0) {
+                assertEquals(expected.size(), hub.getNeighbors().size());
+                for (Map.Entry<Node,Double> e : expected.entrySet()) {
+                    assertEquals(e.getValue(), hub.getNeighbors().get(e.getKey()));
+                }
+            }
+        }
+        // neighbors are kept in insertion order, each once
+        assertEquals(new ArrayList<>(expected.keySet()),
+                new ArrayList<>(hub.getNeighbors().keySet()));
+        assertEquals(expected, hub.getNeighbors());
+        assertFalse(hub.getNeighbors().containsKey(g.getNode("X")));
+        assertNull(hub.getNeighbors().get("N1"));
+        // an equal node from another graph finds the same edge
+        assertTrue(hub.getNeighbors().containsKey(new Node("N1"))
+                == expected.containsKey(new Node("N1")));
+
+        g.addEdge(g.getNode("N1"), hub, 4.0);
+        g.addEdge(g.getNode("N1"), hub, 5.0);
+        assertEquals(1, hub.getIncoming().size());
+        assertEquals(5.0, hub.getIncoming().get(g.getNode("N1")), 0.0);
+    }
+
+    @Test
+    //Test that generated graphs parse, are reproducible from their seed,
+    //and come out the same in both formats
+    public void test31GraphGenerator() throws IOException {
+        for (GraphGenerator.Shape shape : GraphGenerator.Shape.values()) {
+            GraphGenerator gen = new GraphGenerator(shape, 400, 3000, 9);
+            StringWriter basic = new StringWriter();
+            StringWriter again = new StringWriter();
+            long count = gen.write(basic, "basic");
+            gen.write(again, "basic");
+            assertEquals(basic.toString(), again.toString());
+
+            File bf = File.createTempFile("gen", ".txt");
+            File cf = File.createTempFile("gen", ".csv");
+            bf.deleteOnExit();
+            cf.deleteOnExit();
+            Files.writeString(bf.toPath(), basic.toString());
+            try (Writer w = new FileWriter(cf)) {
+                assertEquals(count, gen.write(w, "db1b"));
+            }
+            Graph b = ShortestPaths.parseGraph("basic", bf.getPath());
+            Graph c = ShortestPaths.parseGraph("db1b", cf.getPath());
+            assertTrue(b.size() <= 400);
+            if (shape == GraphGenerator.Shape.GRID) {
+                // a 20 x 20 grid has 2 * 2 * 20 * 19 edges
+                assertEquals(1520, count);
+                assertEquals(400, b.size());
+            } else {
+                assertEquals(3000, count);
+            }
+            // the same edges, except DB1B distances are written to the cent
+            CompactGraph cb = new CompactGraph(b);
+            CompactGraph cc = new CompactGraph(c);
+            assertEquals(cb.edgeCount(), cc.edgeCount());
+            for (int u = 0; u < cb.size(); u++) {
+                assertEquals(cb.getId(u), cc.getId(u));
+                for (int e = cb.edgeStart(u); e < cb.edgeEnd(u); e++) {
+                    assertEquals(cb.target(e), cc.target(e));
+                    assertEquals(cb.weight(e), cc.weight(e), 0.0);
+                }
+            }
+        }
+        assertEquals("AAA", GraphGenerator.appendCode(new StringBuilder(), 0)
+                .toString());
+        assertEquals("ZZZ", GraphGenerator.appendCode(new StringBuilder(),
+                    26 * 26 * 26 - 1).toString());
+        assertEquals("AAAA", GraphGenerator.appendCode(new StringBuilder(),
+                    26 * 26 * 26).toString());
+    }
+
+    @Test
+    //Test the Metrics counters (the test task sets -Dgraph.metrics=true)
+    //for queries, each frontier's sifts and decrease-keys, and hash tables
+    public void test32Metrics() throws Exception {
+        assertTrue(Metrics.ENABLED);
+        MetricsMXBean m = JMX.newMXBeanProxy(
+                ManagementFactory.getPlatformMBeanServer(),
+                new ObjectName(Metrics.OBJECT_NAME), MetricsMXBean.class);
+        m.reset();
+
+        // A->B->C is shorter than A->C, so C's distance is lowered once
+        Graph g = new Graph();
+        g.addEdge(g.getNode("A"), g.getNode("B"), 1);
+        g.addEdge(g.getNode("A"), g.getNode("C"), 4);
+        g.addEdge(g.getNode("B"), g.getNode("C"), 1);
+        new ShortestPaths().compute(g.getNode("A"));
+        assertEquals(1, m.getQueries());
+        assertEquals(3, m.getNodesSettled());
+        assertEquals(3, m.getEdgesRelaxed());
+        assertEquals(3, m.getSuccessfulRelaxations());
+        assertEquals(2, m.getFrontierPeakSize());
+        assertEquals(1, m.getFrontierChangePriorityCalls());
+
+        // the queue restarts at B's priority 1, and polling C at 2 steps
+        // over B's emptied bucket
+        m.reset();
+        new ShortestPaths(FrontierType.BUCKET).compute(g.getNode("A"));
+        assertEquals(1, m.getFrontierChangePriorityCalls());
+        assertEquals(1, m.getBucketScans());
+
+        m.reset();
+        for (Frontier h : List.of(new IntHeap(), new DaryHeap(4, 2),
+                    new HeapFrontier())) {
+            h.add(0, 3);
+            h.add(1, 2); // the Heap swaps 1 with 0
+            h.changePriority(0, 1); // and 0 back with 1
+        }
+        assertEquals(3, m.getFrontierChangePriorityCalls());
+        assertEquals(2, m.getHeapSwaps());
+
+        // three keys with the same home slot form one probe sequence
+        OpenHashTable<Integer,Integer> open = new OpenHashTable<>(16);
+        List<Integer> same = keysWithHome(3, 16, 0, 4);
+        for (int i = 0; i < 3; i++) {
+            open.put(same.get(i), i);
+        }
+        m.reset();
+        assertEquals(Integer.valueOf(2), open.get(same.get(2)));
+        assertNull(open.get(same.get(3))); // ends at the empty fourth slot
+        assertEquals(2, m.getHashLookups());
+        assertEquals(7, m.getHashProbes());
+        assertEquals(4, m.getHashMaxProbeLength());
+        for (int i = 0; i < 10; i++) {
+            open.put(1000 + i, i);
+        }
+        assertEquals(32, open.getCapacity());
+        assertEquals(1, m.getHashResizes());
+
+        // all keys in one bucket, so the chain is as long as the table
+        HashTable<Integer,Integer> table = new HashTable<>(100);
+        for (int i = 0; i < 5; i++) {
+            table.put(i * 100, i);
+        }
+        m.reset();
+        assertEquals(Integer.valueOf(0), table.get(0));
+        assertEquals(1, m.getHashLookups());
+        assertEquals(5, m.getHashProbes());
+        assertEquals(5, m.getHashMaxProbeLength());
+        for (int i = 5; i < 100; i++) {
+            table.put(i, i);
+        }
+        assertEquals(1, m.getHashResizes());
+        assertTrue(m.getHashResizeNanos() > 0);
+        assertEquals(m.getHashResizes(),
+                (long) Metrics.snapshot().get("HashResizes"));
+    }
+
+    @Test
+    //Test the Flight Recorder events for parsing, queries, and the growth
+    //of hash tables, ALists and frontiers
+    public void test33FlightRecorderEvents() throws Exception {
+        Path jfr = Files.createTempFile("graph", ".jfr");
+        jfr.toFile().deleteOnExit();
+        try (Recording r = new Recording()) {
+            r.enable("graph.Parse").withoutThreshold();
+            r.enable("graph.Resize").withoutThreshold();
+            r.enable("graph.ShortestPathsQuery").withoutThreshold();
+            r.start();
+            Graph g = loadBasicGraph("Simple0.txt");
+            new ShortestPaths().compute(g.getNode("A"));
+            HashTable<Integer,Integer> table = new HashTable<>(10);
+            OpenHashTable<Integer,Integer> open = new OpenHashTable<>(16);
+            for (int i = 0; i < 13; i++) {
+                table.put(i, i);
+                open.put(i, i);
+            }
+            AList<String> list = new AList<>(8);
+            list.resize(9);
+            new IntHeap(4).add(9, 1);
+            BucketQueue q = new BucketQueue(2, 1);
+            q.add(5, 0); // grows the keys
+            q.add(0, 10); // grows the buckets
+            new PairingHeap(4).add(9, 1);
+            LazyFrontier lazy = new LazyFrontier(2);
+            lazy.add(5, 0); // grows the keys
+            lazy.add(0, 2);
+            lazy.changePriority(0, 1); // a third entry grows the entries
+            r.stop();
+            r.dump(jfr);
+        }
+
+        Map<String,RecordedEvent> events = new HashMap<>();
+        for (RecordedEvent e : RecordingFile.readAllEvents(jfr)) {
+            String name = e.getEventType().getName();
+            if (name.equals("graph.Resize")) {
+                name += "." + e.getClass("collection").getName();
+                if (e.getString("array") != null) {
+                    name += "." + e.getString("array");
+                }
+            }
+            events.put(name, e);
+        }
+        RecordedEvent parse = events.get("graph.Parse");
+        assertEquals("BasicParser", parse.getString("parser"));
+        assertTrue(parse.getString("file").endsWith("Simple0.txt"));
+        assertEquals(3, parse.getLong("rows"));
+        assertEquals(18, parse.getLong("bytes"));
+
+        RecordedEvent query = events.get("graph.ShortestPathsQuery");
+        assertEquals("A", query.getString("origin"));
+        assertEquals(3, query.getInt("settled"));
+
+        // each collection grew once, at the last of its inserts
+        assertResize(events.get("graph.Resize.graph.HashTable"), 10, 20, 9);
+        assertResize(events.get("graph.Resize.graph.OpenHashTable"),
+                16, 32, 13);
+        assertResize(events.get("graph.Resize.graph.AList"), 8, 16, 8);
+        assertResize(events.get("graph.Resize.graph.IntHeap"), 4, 16, 4);
+        assertResize(events.get("graph.Resize.graph.BucketQueue.keys"),
+                2, 8, 2);
+        assertResize(events.get("graph.Resize.graph.BucketQueue.buckets"),
+                2, 16, 1);
+        assertResize(events.get("graph.Resize.graph.PairingHeap"), 4, 16, 4);
+        assertResize(events.get("graph.Resize.graph.LazyFrontier.keys"),
+                2, 8, 2);
+        assertResize(events.get("graph.Resize.graph.LazyFrontier.entries"),
+                2, 4, 2);
+    }
+
+    /* Assert that resize event e grew a collection from capacity oldCap to
+     * newCap, moving moved entries. */
+    private void assertResize(RecordedEvent e, int oldCap, int newCap,
+            long moved) {
+        assertEquals(oldCap, e.getInt("oldCapacity"));
+        assertEquals(newCap, e.getInt("newCapacity"));
+        assertEquals(moved, e.getLong("entriesMoved"));
+    }
+
+    @Test
+    //Test IntHeap add, poll order, changePriority, contains, clear and growth
+    public void test34IntHeap() {
+        IntHeap h = new IntHeap(2);
+        assertEquals(0, h.size());
+        assertFalse(h.contains(0));
+        assertFalse(h.contains(100));
+
+        // keys well past the initial capacity make the arrays grow
+        Random rand = new Random(3);
+        double[] prio = new double[200];
+        for (int v = 0; v < prio.length; v++) {
+            prio[v] = rand.nextInt(1000);
+            h.add(v, prio[v]);
+        }
+        assertEquals(200, h.size());
+        assertTrue(h.contains(199));
+        assertEquals(prio[17], h.priority(17), 0.0);
+        try {
+            h.add(17, 1);
+            fail("added a key twice");
+        } catch (IllegalArgumentException e) {
+        }
+
+        // lower some priorities, raise others
+        for (int v = 0; v < prio.length; v += 3) {
+            prio[v] = v % 2 == 0 ? prio[v] / 2 : prio[v] + 500;
+            h.changePriority(v, prio[v]);
+        }
+
+        // poll half, then check that the rest still come out in order
+        double last = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < 100; i++) {
+            int v = h.peek();
+            assertEquals(v, h.poll());
+            assertFalse(h.contains(v));
+            assertTrue(prio[v] >= last);
+            last = prio[v];
+        }
+        assertEquals(100, h.size());
+        while (h.size() > 0) {
+            int v = h.poll();
+            assertTrue(prio[v] >= last);
+            last = prio[v];
+        }
+        try {
+            h.poll();
+            fail("polled an empty heap");
+        } catch (NoSuchElementException e) {
+        }
+        try {
+            h.changePriority(5, 1);
+            fail("changed the priority of a missing key");
+        } catch (IllegalArgumentException e) {
+        }
+
+        // clear empties the heap, and it can be reused afterwards
+        h.add(3, 3);
+        h.add(1, 1);
+        h.add(2, 2);
+        h.clear();
+        assertEquals(0, h.size());
+        assertFalse(h.contains(1));
+        h.add(1, 5);
+        h.add(2, 4);
+        h.changePriority(1, 3);
+        assertEquals(1, h.poll());
+        assertEquals(2, h.poll());
+    }
+
+    /* Return the first n Integers from start up whose home slot in an
+     * OpenHashTable with the given capacity is slot. */
+    private List<Integer> keysWithHome(int slot, int capacity, int start, int n) {
+        List<Integer> keys = new ArrayList<>();
+        for (int k = start; keys.size() < n; k++) {
+            if ((OpenHashTable.spread(Integer.hashCode(k)) & (capacity - 1)) == slot) {
+                keys.add(k);
+            }
+        }
+        return keys;
+    }
+
+    @Test
+    //Test OpenHashTable removal from a probe cluster that wraps around the end of the array
+    public void test35OpenHashTableWrap() {
+        OpenHashTable<Integer,String> t = new OpenHashTable<>(16);
+        assertEquals(16, t.getCapacity());
+        // a, b and c all belong in the last slot, so b and c wrap to 0 and 1;
+        // d belongs in slot 0 and is pushed to 2
+        List<Integer> last = keysWithHome(15, 16, 0, 3);
+        int a = last.get(0), b = last.get(1), c = last.get(2);
+        int d = keysWithHome(0, 16, 0, 1).get(0);
+        for (int k : List.of(a, b, c, d)) {
+            assertNull(t.put(k, "v" + k));
+        }
+        assertEquals(Integer.valueOf(a), t.keys[15]);
+        assertEquals(Integer.valueOf(b), t.keys[0]);
+        assertEquals(Integer.valueOf(c), t.keys[1]);
+        assertEquals(Integer.valueOf(d), t.keys[2]);
+
+        // removing b from the middle of the cluster shifts c and d back
+        assertEquals("v" + b, t.remove(b));
+        assertEquals(Integer.valueOf(c), t.keys[0]);
+        assertEquals(Integer.valueOf(d), t.keys[1]);
+        assertNull(t.keys[2]);
+        assertFalse(t.containsKey(b));
+        assertNull(t.remove(b));
+        for (int k : List.of(a, c, d)) {
+            assertEquals("v" + k, t.get(k));
+        }
+
+        // removing a, at the start of the cluster, leaves c reachable
+        assertEquals("v" + a, t.remove(a));
+        assertEquals(Integer.valueOf(c), t.keys[15]);
+        assertEquals(Integer.valueOf(d), t.keys[0]);
+        assertEquals("v" + c, t.get(c));
+        assertEquals("v" + d, t.get(d));
+        assertEquals(2, t.getSize());
+    }
+
+    @Test
+    //Test that OpenHashTable behaves like HashMap through puts, removes and growth
+    public void test36OpenHashTable() {
+        OpenHashTable<Integer,Integer> t = new OpenHashTable<>(4);
+        HashMap<Integer,Integer> expected = new HashMap<>();
+        Random rand = new Random(8);
+        int capacity = t.getCapacity();
+        int grew = 0;
+        for (int i = 0; i < 20000; i++) {
+            // few enough distinct keys that removes often hit, and in
+            // clusters, since small keys share home slots
+            Integer k = rand.nextInt(3000);
+            int op = rand.nextInt(4);
+            if (op < 2) {
+                assertEquals(expected.put(k, i), t.put(k, i));
+            } else if (op == 2) {
+                assertEquals(expected.remove(k), t.remove(k));
+            } else {
+                assertEquals(expected.get(k), t.get(k));
+                assertEquals(expected.containsKey(k), t.containsKey(k));
+            }
+            assertEquals(expected.size(), t.getSize());
+            assertTrue(t.getSize() * 4 <= t.getCapacity() * 3);
+            if (t.getCapacity() != capacity) {
+                assertEquals(capacity * 2, t.getCapacity());
+                capacity = t.getCapacity();
+                grew++;
+            }
+        }
+        assertTrue(grew >= 8);
+        for (Map.Entry<Integer,Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), t.get(e.getKey()));
+        }
+    }
+
+    @Test
+    //Test that an incremental HashTable behaves like HashMap across several resizes, with removes mid-migration
+    public void test37IncrementalHashTable() {
+        HashTable<Integer,Integer> t = new HashTable<>(4, true);
+        HashMap<Integer,Integer> expected = new HashMap<>();
+        Random rand = new Random(21);
+        int resizes = 0;
+        int removesWhileResizing = 0;
+        int capacity = t.getCapacity();
+        for (int i = 0; i < 20000; i++) {
+            Integer k = rand.nextInt(4000);
+            int op = rand.nextInt(5);
+            boolean resizing = t.isResizing();
+            if (op < 3) {
+                assertEquals(expected.put(k, i), t.put(k, i));
+            } else if (op == 3) {
+                assertEquals(expected.remove(k), t.remove(k));
+                if (resizing) {
+                    removesWhileResizing++;
+                }
+            } else {
+                assertEquals(expected.get(k), t.get(k));
+            }
+            assertEquals(expected.size(), t.getSize());
+            if (t.getCapacity() != capacity) {
+                // growing starts a migration that later operations finish
+                assertTrue(t.isResizing());
+                capacity = t.getCapacity();
+                resizes++;
+            }
+        }
+        assertTrue(resizes >= 5);
+        assertTrue(removesWhileResizing > 0);
+        for (Map.Entry<Integer,Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), t.get(e.getKey()));
+        }
+        assertFalse(t.isResizing());
+
+        // a table that is not incremental finishes every resize at once
+        HashTable<Integer,Integer> eager = new HashTable<>(4);
+        for (int i = 0; i < 100; i++) {
+            eager.put(i, i);
+            assertFalse(eager.isResizing());
+        }
+    }
+
+    @Test
+    //Test BucketQueue restarts, out-of-range priorities and large weights
+    public void test38BucketQueueRanges() {
+        // a first key far above 0 must not hide a lower second key
+        BucketQueue q = new BucketQueue(10, 1024);
+        q.add(1, 2100);
+        q.add(2, 2000);
+        assertEquals(2, q.poll());
+        assertEquals(1, q.poll());
+
+        // the same after the queue has been emptied from priority 0
+        q.add(0, 0);
+        assertEquals(0, q.poll());
+        q.add(1, 2100);
+        q.add(2, 2000);
+        q.add(3, 9000);
+        assertEquals(2, q.poll());
+        try {
+            q.add(4, 1999);
+            fail("added a priority below the last poll");
+        } catch (IllegalArgumentException e) {
+        }
+        q.changePriority(3, 2050);
+        assertEquals(3, q.poll());
+        assertEquals(1, q.poll());
+
+        // a spread too large for any bucket array is rejected, and the
+        // queue is left as it was
+        q.add(0, 0);
+        try {
+            q.add(1, 3e9);
+            fail("added a priority spread over 2^30");
+        } catch (IllegalArgumentException e) {
+        }
+        assertEquals(1, q.size());
+        assertFalse(q.contains(1));
+        assertEquals(0, q.poll());
+        try {
+            new BucketQueue(10, BucketQueue.MAX_BUCKETS);
+            fail("created a queue with too many buckets");
+        } catch (IllegalArgumentException e) {
+        }
+
+        // random monotone use, as in Dijkstra, agrees with IntHeap
+        Random rand = new Random(12);
+        BucketQueue bq = new BucketQueue(4, 4);
+        IntHeap ih = new IntHeap(4);
+        long last = 0;
+        for (int i = 0; i < 5000; i++) {
+            int v = rand.nextInt(300);
+            double p = last + rand.nextInt(rand.nextBoolean() ? 10 : 5000);
+            if (!bq.contains(v)) {
+                bq.add(v, p);
+                ih.add(v, p);
+            } else if (p < ih.priority(v)) {
+                bq.changePriority(v, p);
+                ih.changePriority(v, p);
+            }
+            if (rand.nextInt(3) == 0) {
+                int w = bq.poll();
+                last = (long) ih.priority(ih.peek());
+                assertEquals(last, ih.priority(w), 0.0);
+                ih.changePriority(w, -1);
+                assertEquals(w, ih.poll());
+            }
+        }
+
+        // graphs with huge integer weights do not get a bucket queue
+        Graph g = new Graph();
+        g.addEdge(g.getNode("A"), g.getNode("B"), 1);
+        g.addEdge(g.getNode("A"), g.getNode("C"), 1e8);
+        assertTrue(g.hasIntegerWeights());
+        assertEquals(1e8, g.getMaxWeight(), 0.0);
+        assertEquals(FrontierType.BINARY, FrontierType.forGraph(g));
+        g.addEdge(g.getNode("A"), g.getNode("C"), 3e9);
+        ShortestPaths sp = ShortestPaths.forGraph(g);
+        assertEquals(FrontierType.BINARY, sp.getFrontierType());
+        sp.compute(g.getNode("A"));
+        assertEquals(3e9, sp.shortestPathLength(g.getNode("C")), 0.0);
+        try {
+            new ShortestPaths(FrontierType.BUCKET).compute(g.getNode("A"));
+            fail("bucket queue accepted a spread over 2^30");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    //Test that an incremental OpenHashTable behaves like HashMap through
+    //puts, gets and removes while it migrates, and that Heap uses it
+    public void test39IncrementalOpenHashTable() {
+        OpenHashTable<Integer,Integer> t = new OpenHashTable<>(8, true);
+        HashMap<Integer,Integer> expected = new HashMap<>();
+        Random rand = new Random(23);
+        int resizes = 0;
+        int removesWhileResizing = 0;
+        int capacity = t.getCapacity();
+        for (int i = 0; i < 20000; i++) {
+            Integer k = rand.nextInt(4000);
+            int op = rand.nextInt(5);
+            boolean resizing = t.isResizing();
+            if (op < 3) {
+                assertEquals(expected.put(k, i), t.put(k, i));
+            } else if (op == 3) {
+                assertEquals(expected.remove(k), t.remove(k));
+                if (resizing) {
+                    removesWhileResizing++;
+                }
+            } else {
+                assertEquals(expected.get(k), t.get(k));
+            }
+            assertEquals(expected.size(), t.getSize());
+            if (t.getCapacity() != capacity) {
+                // growing starts a migration that later operations finish
+                assertTrue(t.isResizing());
+                capacity = t.getCapacity();
+                resizes++;
+            }
+        }
+        assertTrue(resizes >= 5);
+        assertTrue(removesWhileResizing > 0);
+        for (Map.Entry<Integer,Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), t.get(e.getKey()));
+        }
+        assertFalse(t.isResizing());
+
+        // keys from both ends of the old array, so clusters wrap around
+        OpenHashTable<Integer,Integer> w = new OpenHashTable<>(16, true);
+        List<Integer> ks = new ArrayList<>(keysWithHome(15, 16, 0, 7));
+        ks.addAll(keysWithHome(0, 16, 0, 6));
+        for (int k : ks) {
+            w.put(k, k);
+        }
+        assertTrue(w.isResizing());
+        for (int k : ks) {
+            assertEquals(Integer.valueOf(k), w.get(k));
+        }
+        assertFalse(w.isResizing());
+
+        Heap<Integer,Integer> heap = new Heap<>();
+        for (int i = 0; i < 1000; i++) {
+            heap.add(i, 1000 - i);
+        }
+        for (int i = 999; i >= 0; i--) {
+            assertEquals(Integer.valueOf(i), heap.poll());
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** AList.append and pop: each operation appends size values to a new list,
+ * growing it from capacity 1, and pops them all again. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AListBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private final Integer value = 7;
+
+    @Benchmark
+    public int appendPop() {
+        AList<Integer> list = new AList<>(1);
+        for (int i = 0; i < size; i++) {
+            list.append(value);
+        }
+        int sum = 0;
+        while (list.size() > 0) {
+            sum += list.pop();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,68 @@
+package graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** How BatchShortestPaths throughput scales with the number of threads:
+ * each operation computes a full shortest path tree from each of the same
+ * origins on a random graph of nodes nodes with degree edges each, so
+ * origins per second is ops/s times origins. Compare the threads
+ * parameters for the speedup; thread counts above the number of cores
+ * only show the cost of oversubscription. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+
+    @Param({"100000"})
+    int nodes;
+
+    @Param({"4"})
+    int degree;
+
+    @Param({"64"})
+    int origins;
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    private BatchShortestPaths batch;
+    private List<Node> originNodes;
+
+    @Setup
+    public void setUp() throws IOException {
+        Graph g = BenchmarkGraphs.generate("random", nodes,
+                (long) nodes * degree, 42);
+        batch = new BatchShortestPaths(g, threads);
+        Random rand = new Random(7);
+        originNodes = new ArrayList<>();
+        for (int i = 0; i < origins; i++) {
+            originNodes.add(g.getNode(rand.nextInt(g.size())));
+        }
+    }
+
+    /** Compute a tree from every origin, discarding each when done. */
+    @Benchmark
+    public int computeAll() {
+        int[] count = new int[1];
+        batch.computeAll(originNodes, tree -> count[0]++);
+        return count[0];
+    }
+}
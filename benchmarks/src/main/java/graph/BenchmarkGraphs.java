@@ -0,0 +1,50 @@
+package graph;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/** Synthetic graphs for the benchmarks, made by GraphGenerator so that
+ * every benchmark and the perfTest scenarios share one definition of a
+ * random, grid, power-law or DB1B graph. */
+final class BenchmarkGraphs {
+
+    private BenchmarkGraphs() {
+    }
+
+    /** Return a graph of the given shape with about nodes nodes and at
+     * most edges edges (DB1B rows for "db1b"), generated from seed. A db1b
+     * graph is written as DB1B rows and parsed by DB1BParser, so repeated
+     * routes are merged as in real data; the others are parsed by
+     * BasicParser. Either way the weights are integers. */
+    static Graph generate(String shape, int nodes, long edges, long seed)
+            throws IOException {
+        String format = GraphGenerator.Shape.parse(shape)
+            == GraphGenerator.Shape.DB1B ? "db1b" : "basic";
+        File f = write(shape, format, nodes, edges, seed);
+        try {
+            return ShortestPaths.parseGraph(format, f.getPath());
+        } finally {
+            f.delete();
+        }
+    }
+
+    /** Write the graph generate would make to a new temporary file in the
+     * given format, "basic" or "db1b", and return the file. The caller
+     * deletes it. */
+    static File write(String shape, String format, int nodes, long edges,
+            long seed) throws IOException {
+        File f = File.createTempFile("bench",
+                format.equals("db1b") ? ".csv" : ".txt");
+        GraphGenerator gen = new GraphGenerator(
+                GraphGenerator.Shape.parse(shape), nodes, edges, seed);
+        try (Writer out = new FileWriter(f)) {
+            gen.write(out, format);
+        } catch (IOException | RuntimeException e) {
+            f.delete();
+            throw e;
+        }
+        return f;
+    }
+}
@@ -0,0 +1,98 @@
+package graph;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** ContractionHierarchy preprocessing, and its point-to-point queries
+ * against Dijkstra's algorithm stopped at the destination, on a grid of
+ * about nodes cells, and on power-law and DB1B graphs of nodes nodes and
+ * degree times as many edges or rows (see GraphGenerator). The number of
+ * shortcuts preprocessing adds is printed as each run sets up. For each
+ * shape, the ratio of the two query scores is CH's speedup;
+ * test21ContractionHierarchy checks that both give the same path lengths.
+ * Hubs make power-law and DB1B graphs slow to contract, so nodes is kept
+ * small; pass -p nodes=... for larger runs. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CHBenchmark {
+
+    @Param({"grid", "powerlaw", "db1b"})
+    String shape;
+
+    @Param({"2000"})
+    int nodes;
+
+    @Param({"4"})
+    int degree;
+
+    private CompactGraph graph;
+    private ContractionHierarchy ch;
+    private CHShortestPaths chsp;
+    private ShortestPaths sp;
+    private int[] origins;
+    private int[] dests;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        long edges = shape.equals("grid") ? Long.MAX_VALUE
+            : (long) nodes * degree;
+        graph = new CompactGraph(BenchmarkGraphs.generate(shape, nodes,
+                    edges, 42));
+        ch = ContractionHierarchy.build(graph);
+        System.out.printf("%s graph of %d nodes: %d shortcuts%n", shape,
+                graph.size(), ch.shortcutCount());
+        chsp = new CHShortestPaths(ch);
+        sp = new ShortestPaths();
+        Random rand = new Random(7);
+        origins = new int[64];
+        dests = new int[64];
+        for (int i = 0; i < origins.length; i++) {
+            origins[i] = rand.nextInt(graph.size());
+            dests[i] = rand.nextInt(graph.size());
+        }
+    }
+
+    /** Build the hierarchy, timed once per iteration. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public ContractionHierarchy build() {
+        return ContractionHierarchy.build(graph);
+    }
+
+    /** Answer the next query with the hierarchy. */
+    @Benchmark
+    public double chQuery() {
+        int i = next++ & (origins.length - 1);
+        chsp.compute(origins[i], dests[i]);
+        return chsp.shortestPathLength();
+    }
+
+    /** Answer the next query with Dijkstra's algorithm. */
+    @Benchmark
+    public double dijkstraQuery() {
+        int i = next++ & (origins.length - 1);
+        Node dest = graph.getNode(dests[i]);
+        sp.compute(graph.getNode(origins[i]), dest);
+        return sp.shortestPathLength(dest);
+    }
+}
@@ -0,0 +1,67 @@
+package graph;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** ShortestPaths.compute with each FrontierType on the same graphs and
+ * origins: random, power-law and DB1B graphs of nodes nodes and degree
+ * times as many edges or rows, and a grid of about nodes cells (see
+ * GraphGenerator). Weights are integers, so BUCKET can run on all of
+ * them. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrontierBenchmark {
+
+    @Param({"random", "grid", "powerlaw", "db1b"})
+    String shape;
+
+    @Param({"100000"})
+    int nodes;
+
+    @Param({"4"})
+    int degree;
+
+    @Param({"HEAP", "BINARY", "DARY4", "DARY8", "PAIRING", "LAZY",
+        "BUCKET"})
+    FrontierType frontier;
+
+    private ShortestPaths sp;
+    private Node[] origins;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        long edges = shape.equals("grid") ? Long.MAX_VALUE
+            : (long) nodes * degree;
+        Graph g = BenchmarkGraphs.generate(shape, nodes, edges, 42);
+        sp = new ShortestPaths(frontier);
+        Random rand = new Random(7);
+        origins = new Node[32];
+        for (int i = 0; i < origins.length; i++) {
+            origins[i] = g.getNode(rand.nextInt(g.size()));
+        }
+    }
+
+    /** Compute paths from the next origin to every node. */
+    @Benchmark
+    public ShortestPaths compute() {
+        sp.compute(origins[next++ & (origins.length - 1)]);
+        return sp;
+    }
+}
@@ -0,0 +1,79 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** HashTable.put, get and remove with size String keys, with whole-table
+ * or incremental resizing. put grows the table from its default capacity,
+ * so it includes every resize. Each operation covers all size keys. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashTableBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean incremental;
+
+    private String[] keys;
+    private HashTable<String,Integer> full;
+
+    @Setup
+    public void setUp() {
+        keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "K" + i;
+        }
+        full = fill();
+    }
+
+    /** Put every key into a new table, growing it as it fills. */
+    @Benchmark
+    public HashTable<String,Integer> putGrowing() {
+        return fill();
+    }
+
+    /** Get every key from a full table. */
+    @Benchmark
+    public int get() {
+        int sum = 0;
+        for (String k : keys) {
+            sum += full.get(k);
+        }
+        return sum;
+    }
+
+    /** Fill a new table, then remove every key. */
+    @Benchmark
+    public HashTable<String,Integer> putRemove() {
+        HashTable<String,Integer> t = fill();
+        for (String k : keys) {
+            t.remove(k);
+        }
+        return t;
+    }
+
+    /* Return a new table mapping each key to its position. */
+    private HashTable<String,Integer> fill() {
+        HashTable<String,Integer> t = new HashTable<>(16, incremental);
+        for (int i = 0; i < size; i++) {
+            t.put(keys[i], i);
+        }
+        return t;
+    }
+}
@@ -0,0 +1,68 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Heap.add, poll and changePriority on heaps of size values, with random
+ * priorities. Each operation fills a new heap, so ops/s is heaps per
+ * second. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeapBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private double[] priorities;
+
+    @Setup
+    public void setUp() {
+        Random rand = new Random(42);
+        priorities = new double[size];
+        for (int i = 0; i < size; i++) {
+            priorities[i] = rand.nextDouble();
+        }
+    }
+
+    /** Add size values, then poll them all. */
+    @Benchmark
+    public int addPoll() {
+        Heap<Integer,Double> h = new Heap<>();
+        for (int i = 0; i < size; i++) {
+            h.add(i, priorities[i]);
+        }
+        int sum = 0;
+        while (h.size() > 0) {
+            sum += h.poll();
+        }
+        return sum;
+    }
+
+    /** Add size values, then halve the priority of each. */
+    @Benchmark
+    public Heap<Integer,Double> addChangePriority() {
+        Heap<Integer,Double> h = new Heap<>();
+        for (int i = 0; i < size; i++) {
+            h.add(i, priorities[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            h.changePriority(i, priorities[i] / 2);
+        }
+        return h;
+    }
+}
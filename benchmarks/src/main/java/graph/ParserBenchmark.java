@@ -0,0 +1,73 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Parser throughput on DB1B-shaped files of rows lines over airports
+ * airports, generated by BenchmarkGraphs: a basic file and a DB1B CSV
+ * with the same routes. Each operation parses a whole file into a Graph,
+ * so rows per second is ops/s times rows. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"100000"})
+    int rows;
+
+    @Param({"400"})
+    int airports;
+
+    private File basic;
+    private File db1b;
+
+    @Setup
+    public void setUp() throws IOException {
+        basic = BenchmarkGraphs.write("db1b", "basic", airports, rows, 42);
+        db1b = BenchmarkGraphs.write("db1b", "db1b", airports, rows, 42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        basic.delete();
+        db1b.delete();
+    }
+
+    @Benchmark
+    public Graph basicParser() throws IOException {
+        return parse(new BasicParser(), basic);
+    }
+
+    @Benchmark
+    public Graph db1bParser() throws IOException {
+        return parse(new DB1BParser(), db1b);
+    }
+
+    @Benchmark
+    public Graph mappedDB1BParser() throws IOException {
+        return parse(new MappedDB1BParser(), db1b);
+    }
+
+    /* Open f with parser and parse it. */
+    private static Graph parse(GraphParser parser, File f)
+            throws IOException {
+        parser.open(f);
+        return parser.parse();
+    }
+}
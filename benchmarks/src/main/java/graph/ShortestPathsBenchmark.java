@@ -0,0 +1,69 @@
+package graph;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** ShortestPaths.compute from a rotating set of origins on random graphs
+ * (see GraphGenerator) of nodes nodes with degree edges each, using the
+ * frontier ShortestPaths.forGraph picks. The same ShortestPaths is reused,
+ * as a query server would. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShortestPathsBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int nodes;
+
+    @Param({"2", "4", "8"})
+    int degree;
+
+    private Graph graph;
+    private ShortestPaths sp;
+    private Node[] origins;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random rand = new Random(42);
+        graph = BenchmarkGraphs.generate("random", nodes,
+                (long) nodes * degree, 42);
+        sp = ShortestPaths.forGraph(graph);
+        origins = new Node[64];
+        for (int i = 0; i < origins.length; i++) {
+            origins[i] = graph.getNode(rand.nextInt(graph.size()));
+        }
+    }
+
+    /** Compute paths from the next origin to every node. */
+    @Benchmark
+    public ShortestPaths compute() {
+        sp.compute(origins[next++ & (origins.length - 1)]);
+        return sp;
+    }
+
+    /** Compute paths from the next origin until the following one is
+     * settled. */
+    @Benchmark
+    public double computeToDestination() {
+        Node origin = origins[next++ & (origins.length - 1)];
+        Node dest = origins[next & (origins.length - 1)];
+        sp.compute(origin, dest);
+        return sp.shortestPathLength(dest);
+    }
+}